@@ -0,0 +1,72 @@
+package org.work.authservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Read-through кэш клиентов поверх JDBC-репозитория: при выдаче токенов клиент ищется
+ * несколько раз за запрос, в БД идем только при промахе. Промахи не кэшируются.
+ * Изменения через админку сбрасывают записи после коммита, на других узлах - через Redis pub/sub;
+ * TTL - страховка на случай потерянного сообщения.
+ */
+@Slf4j
+public class CachingRegisteredClientRepository implements RegisteredClientRepository {
+
+    private final RegisteredClientRepository delegate;
+    private final Cache<String, RegisteredClient> byId;
+    private final Cache<String, RegisteredClient> byClientId;
+
+    public CachingRegisteredClientRepository(RegisteredClientRepository delegate,
+                                             MeterRegistry meterRegistry,
+                                             long maxSize,
+                                             Duration ttl) {
+        this.delegate = delegate;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byClientId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "registered-clients-by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byClientId, "registered-clients-by-client-id");
+    }
+
+    @Override
+    public void save(RegisteredClient registeredClient) {
+        delegate.save(registeredClient);
+        evict(registeredClient.getId(), registeredClient.getClientId());
+    }
+
+    @Override
+    public RegisteredClient findById(String id) {
+        return byId.get(id, delegate::findById);
+    }
+
+    @Override
+    public RegisteredClient findByClientId(String clientId) {
+        return byClientId.get(clientId, delegate::findByClientId);
+    }
+
+    public void evict(String id, String clientId) {
+        byId.invalidate(id);
+        byClientId.invalidate(clientId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegisteredClientChanged(RegisteredClientChangedEvent event) {
+        log.debug("Evicting cached registered client {}", event.clientId());
+        evict(event.id(), event.clientId());
+    }
+}
@@ -0,0 +1,8 @@
+package org.work.authservice.cache;
+
+/**
+ * Публикуется при создании, изменении или удалении OAuth2-клиента.
+ * Обрабатывается после коммита транзакции.
+ */
+public record RegisteredClientChangedEvent(String id, String clientId) {
+}
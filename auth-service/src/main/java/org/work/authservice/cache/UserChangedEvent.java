@@ -0,0 +1,12 @@
+package org.work.authservice.cache;
+
+/**
+ * Публикуется при изменении данных пользователя, которые попадают в кэш.
+ * Обрабатывается после коммита транзакции.
+ */
+public record UserChangedEvent(String username, Reason reason) {
+
+    public enum Reason {
+        REGISTERED, PASSWORD_CHANGED
+    }
+}
@@ -0,0 +1,40 @@
+package org.work.authservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.work.authservice.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Соответствие username -> id. Id пользователя не меняется, поэтому кэш не сбрасывается
+ * при изменениях пользователя, ограничен только размером и временем простоя. Промахи не кэшируются.
+ */
+@Component
+public class UserIdCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Long> cache;
+
+    public UserIdCache(UserRepository userRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${user-id-cache.max-size:100000}") long maxSize,
+                       @Value("${user-id-cache.expire-after-access:1h}") Duration expireAfterAccess) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-ids");
+    }
+
+    public Optional<Long> get(String username) {
+        return Optional.ofNullable(cache.get(username, key -> userRepository.findIdByUsername(key).orElse(null)));
+    }
+}
@@ -0,0 +1,21 @@
+package org.work.authservice.cache;
+
+import org.work.authservice.entity.Role;
+import org.work.authservice.entity.User;
+
+import java.util.List;
+
+/**
+ * Неизменяемый снимок пользователя для кэша.
+ * UserDetails кэшировать нельзя: ProviderManager стирает в нем пароль после аутентификации.
+ */
+public record UserSnapshot(Long id, String username, String passwordHash, List<String> roles) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getRoles().stream().map(Role::getName).sorted().toList());
+    }
+}
@@ -0,0 +1,55 @@
+package org.work.authservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.work.authservice.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Ограниченный по размеру и TTL кэш снимков пользователей для аутентификации и /userinfo.
+ * Промахи не кэшируются. Статистика попаданий публикуется в actuator как метрики cache.* с тегом cache=users.
+ */
+@Component
+@Slf4j
+public class UserSnapshotCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserSnapshot> cache;
+
+    public UserSnapshotCache(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${user-cache.max-size:10000}") long maxSize,
+                             @Value("${user-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<UserSnapshot> get(String username) {
+        // Параллельные загрузки одного ключа Caffeine выполняет один раз
+        return Optional.ofNullable(cache.get(username,
+                key -> userRepository.findByUsername(key).map(UserSnapshot::of).orElse(null)));
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        log.debug("Evicting cached user {} ({})", event.username(), event.reason());
+        evict(event.username());
+    }
+}
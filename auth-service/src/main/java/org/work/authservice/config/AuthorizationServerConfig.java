@@ -1,41 +1,93 @@
 package org.work.authservice.config;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.JWSAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.oidc.OidcScopes;
-import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.JdbcRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
-import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
 import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
 import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenClaimsContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
+import org.springframework.util.StringUtils;
+import org.work.authservice.cache.CachingRegisteredClientRepository;
+import org.work.authservice.security.SigningKeyManager;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Configuration
 public class AuthorizationServerConfig {
 
     @Bean
-    public RegisteredClientRepository registeredClientRepository() {
-        RegisteredClient webClient = RegisteredClient.withId(UUID.randomUUID().toString())
+    public DataSourceInitializer registeredClientSchemaInitializer(DataSource dataSource) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(
+                new ResourceDatabasePopulator(new ClassPathResource("db/oauth2-registered-client-schema.sql")));
+        return initializer;
+    }
+
+    /**
+     * Клиенты в БД (управление через /auth/admin/clients) с read-through кэшем.
+     * web-client создается при первом запуске, если его еще нет. Если задан
+     * auth.tokens.access-token-format (self-contained или reference), формат токенов web-client
+     * приводится к нему при каждом запуске, иначе остается как есть (меняется через админку).
+     * Узлы, уже закэшировавшие клиента, увидят изменение по истечении client-cache.ttl.
+     */
+    @Bean
+    @DependsOn("registeredClientSchemaInitializer")
+    public CachingRegisteredClientRepository registeredClientRepository(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${client-cache.max-size:1000}") long maxSize,
+            @Value("${client-cache.ttl:10m}") Duration ttl,
+            @Value("${auth.tokens.access-token-format:}") String accessTokenFormat) {
+        JdbcRegisteredClientRepository jdbcRepository = new JdbcRegisteredClientRepository(jdbcTemplate);
+        OAuth2TokenFormat tokenFormat = StringUtils.hasText(accessTokenFormat)
+                ? new OAuth2TokenFormat(accessTokenFormat)
+                : null;
+        RegisteredClient webClient = jdbcRepository.findByClientId("web-client");
+        if (webClient == null) {
+            try {
+                jdbcRepository.save(defaultWebClient(tokenFormat != null ? tokenFormat : OAuth2TokenFormat.SELF_CONTAINED));
+            } catch (DuplicateKeyException e) {
+                // Параллельно стартующий узел успел создать клиента
+            }
+        } else if (tokenFormat != null && !tokenFormat.equals(webClient.getTokenSettings().getAccessTokenFormat())) {
+            jdbcRepository.save(RegisteredClient.from(webClient)
+                    .tokenSettings(TokenSettings.withSettings(webClient.getTokenSettings().getSettings())
+                            .accessTokenFormat(tokenFormat)
+                            .build())
+                    .build());
+        }
+        return new CachingRegisteredClientRepository(jdbcRepository, meterRegistry, maxSize, ttl);
+    }
+
+    private static RegisteredClient defaultWebClient(OAuth2TokenFormat accessTokenFormat) {
+        // Постоянный id: на него ссылаются авторизации в общем хранилище
+        RegisteredClient webClient = RegisteredClient.withId("web-client")
                 .clientId("web-client")
                 .clientSecret("{noop}secret") // Используем {noop} для простоты
                 .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
@@ -52,29 +104,37 @@ public class AuthorizationServerConfig {
                 .tokenSettings(TokenSettings.builder()
                         .accessTokenTimeToLive(Duration.ofHours(1))
                         .refreshTokenTimeToLive(Duration.ofDays(30))
+                        .accessTokenFormat(accessTokenFormat)
                         .build())
                 .build();
 
-        return new InMemoryRegisteredClientRepository(webClient);
+        return webClient;
     }
 
-    // Остальные бины без изменений...
+    /**
+     * Ключи подписи из локального файла с ротацией; algorithm: RS256 или ES256 (EC P-256).
+     * Все ключи из файла публикуются в JWKS, подписывает только активный.
+     * keys-password шифрует файл; задавать через переменную окружения или config server.
+     */
     @Bean
-    public JWKSource<SecurityContext> jwkSource() {
-        KeyPair keyPair = generateRsaKey();
-        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-        RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-        RSAKey rsaKey = new RSAKey.Builder(publicKey)
-                .privateKey(privateKey)
-                .keyID(UUID.randomUUID().toString())
-                .build();
-        JWKSet jwkSet = new JWKSet(rsaKey);
-        return new ImmutableJWKSet<>(jwkSet);
+    public SigningKeyManager jwkSource(@Value("${auth.signing.keys-file:keys/signing-keys.json}") String keysFile,
+                                       @Value("${auth.signing.keys-password:}") String keysPassword,
+                                       @Value("${auth.signing.algorithm:RS256}") String algorithm,
+                                       @Value("${auth.signing.rotation-interval:30d}") Duration rotationInterval,
+                                       @Value("${auth.signing.publish-ahead:1h}") Duration publishAhead,
+                                       @Value("${auth.signing.retention:2h}") Duration retention,
+                                       @Value("${auth.signing.rotation-enabled:true}") boolean rotationEnabled) {
+        return new SigningKeyManager(Path.of(keysFile), keysPassword, JWSAlgorithm.parse(algorithm), rotationInterval,
+                publishAhead, retention, rotationEnabled);
     }
 
     @Bean
-    public OAuth2TokenCustomizer<JwtEncodingContext> jwtTokenCustomizer() {
+    public OAuth2TokenCustomizer<JwtEncodingContext> jwtTokenCustomizer(SigningKeyManager signingKeyManager) {
         return (context) -> {
+            // kid активного ключа: в JWKS может быть несколько ключей одного алгоритма
+            context.getJwsHeader()
+                    .algorithm(SignatureAlgorithm.from(signingKeyManager.algorithm().getName()))
+                    .keyId(signingKeyManager.activeKeyId());
             if (context.getTokenType().getValue().equals("access_token")) {
                 Authentication principal = context.getPrincipal();
                 Set<String> authorities = principal.getAuthorities().stream()
@@ -85,15 +145,19 @@ public class AuthorizationServerConfig {
         };
     }
 
-    private static KeyPair generateRsaKey() {
-        KeyPair keyPair;
-        try {
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-            keyPairGenerator.initialize(2048);
-            keyPair = keyPairGenerator.generateKeyPair();
-        } catch (Exception ex) {
-            throw new IllegalStateException(ex);
-        }
-        return keyPair;
+    /**
+     * Роли для reference (opaque) токенов: их claims хранятся в авторизации
+     * и отдаются resource server'ам через /oauth2/introspect.
+     */
+    @Bean
+    public OAuth2TokenCustomizer<OAuth2TokenClaimsContext> accessTokenCustomizer() {
+        return (context) -> {
+            if (OAuth2TokenType.ACCESS_TOKEN.equals(context.getTokenType())) {
+                Set<String> authorities = context.getPrincipal().getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.toSet());
+                context.getClaims().claim("roles", authorities);
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package org.work.authservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationConsentService;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.work.authservice.security.JdbcOAuth2AuthorizationCleaner;
+import org.work.authservice.security.RedisOAuth2AuthorizationConsentService;
+import org.work.authservice.security.RedisOAuth2AuthorizationService;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Хранилище авторизаций (коды, токены) и согласий, общее для всех узлов auth-service.
+ * authorization-store.type: redis (по умолчанию), jdbc или memory - встроенное in-memory
+ * хранилище Spring Authorization Server, только для одного узла.
+ */
+@Configuration
+public class AuthorizationStoreConfig {
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "authorization-store", name = "type", havingValue = "redis", matchIfMissing = true)
+    static class Redis {
+
+        @Bean
+        public OAuth2AuthorizationService authorizationService(StringRedisTemplate redisTemplate,
+                                                               RegisteredClientRepository registeredClientRepository,
+                                                               @Value("${authorization-store.pending-ttl:10m}") Duration pendingTtl) {
+            return new RedisOAuth2AuthorizationService(redisTemplate, registeredClientRepository, pendingTtl);
+        }
+
+        @Bean
+        public OAuth2AuthorizationConsentService authorizationConsentService(StringRedisTemplate redisTemplate,
+                                                                             @Value("${authorization-store.consent-ttl:365d}") Duration consentTtl) {
+            return new RedisOAuth2AuthorizationConsentService(redisTemplate, consentTtl);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "authorization-store", name = "type", havingValue = "jdbc")
+    static class Jdbc {
+
+        @Bean
+        public DataSourceInitializer authorizationSchemaInitializer(DataSource dataSource) {
+            DataSourceInitializer initializer = new DataSourceInitializer();
+            initializer.setDataSource(dataSource);
+            initializer.setDatabasePopulator(
+                    new ResourceDatabasePopulator(new ClassPathResource("db/oauth2-authorization-schema.sql")));
+            return initializer;
+        }
+
+        // JdbcOAuth2AuthorizationService читает метаданные колонок в конструкторе - таблицы должны уже быть
+        @Bean
+        @DependsOn("authorizationSchemaInitializer")
+        public OAuth2AuthorizationService authorizationService(JdbcTemplate jdbcTemplate,
+                                                               RegisteredClientRepository registeredClientRepository) {
+            return new JdbcOAuth2AuthorizationService(jdbcTemplate, registeredClientRepository);
+        }
+
+        @Bean
+        @DependsOn("authorizationSchemaInitializer")
+        public OAuth2AuthorizationConsentService authorizationConsentService(JdbcTemplate jdbcTemplate,
+                                                                             RegisteredClientRepository registeredClientRepository) {
+            return new JdbcOAuth2AuthorizationConsentService(jdbcTemplate, registeredClientRepository);
+        }
+
+        @Bean
+        public JdbcOAuth2AuthorizationCleaner authorizationCleaner(JdbcTemplate jdbcTemplate,
+                                                                   @Value("${authorization-store.cleanup-interval:15m}") Duration interval) {
+            return new JdbcOAuth2AuthorizationCleaner(jdbcTemplate, interval);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.work.authservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.work.authservice.cache.CachingRegisteredClientRepository;
+import org.work.authservice.cache.RegisteredClientChangedEvent;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Рассылает изменения OAuth2-клиентов через Redis pub/sub, чтобы все узлы auth-service
+ * сбрасывали кэш клиентов сразу после изменения в админке.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "client-cache.broadcast", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RegisteredClientBroadcastConfig {
+
+    static final ChannelTopic TOPIC = new ChannelTopic("auth-service:registered-client:invalidate");
+
+    private final StringRedisTemplate redisTemplate;
+    private final CachingRegisteredClientRepository registeredClientRepository;
+
+    @Bean
+    public RedisMessageListenerContainer registeredClientListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            // Формат сообщения: "<id> <clientId>"
+            String[] ids = new String(message.getBody(), StandardCharsets.UTF_8).split(" ", 2);
+            if (ids.length == 2) {
+                registeredClientRepository.evict(ids[0], ids[1]);
+            }
+        }, TOPIC);
+        return container;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void broadcast(RegisteredClientChangedEvent event) {
+        try {
+            redisTemplate.convertAndSend(TOPIC.getTopic(), event.id() + " " + event.clientId());
+        } catch (Exception e) {
+            // Остальные узлы догонят по TTL
+            log.warn("Failed to broadcast registered client invalidation for {}: {}", event.clientId(), e.getMessage());
+        }
+    }
+}
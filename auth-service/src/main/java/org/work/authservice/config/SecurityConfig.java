@@ -1,25 +1,43 @@
 package org.work.authservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationManagerResolver;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.OpaqueTokenAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
 import org.springframework.security.web.util.matcher.MediaTypeRequestMatcher;
+import org.work.authservice.security.AuthorizationServiceOpaqueTokenIntrospector;
+import org.work.authservice.security.BoundedPasswordEncoder;
+import org.work.authservice.security.LoginThrottle;
+import org.work.authservice.security.ThrottlingAuthenticationProvider;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -27,6 +45,7 @@ import org.springframework.security.web.util.matcher.MediaTypeRequestMatcher;
 public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
 
     @Bean
     @Order(1)
@@ -50,12 +69,40 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Данные пользователя для клиентов (web-service): только по access token, JWT или reference.
+     * Без этой цепочки запрос с токеном попадал бы в form login и получал редирект на /login.
+     */
     @Bean
     @Order(2)
-    public SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain userInfoSecurityFilterChain(HttpSecurity http,
+                                                           JwtDecoder jwtDecoder,
+                                                           OAuth2AuthorizationService authorizationService) throws Exception {
+        http
+                .securityMatcher("/userinfo", "/auth/user/**")
+                .authorizeHttpRequests((authorize) -> authorize
+                        .anyRequest().authenticated()
+                )
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .oauth2ResourceServer((resourceServer) -> resourceServer
+                        .authenticationManagerResolver(bearerTokenAuthenticationManagerResolver(jwtDecoder, authorizationService)))
+                .csrf(csrf -> csrf.disable());
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(3)
+    public SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http,
+                                                          AuthenticationManager authenticationManager) throws Exception {
         http
+                // Явно: иначе form login собрал бы свой DaoAuthenticationProvider без ограничения попыток
+                .authenticationManager(authenticationManager)
                 .authorizeHttpRequests((authorize) -> authorize
-                        .requestMatchers("/auth/register", "/actuator/**", "/error").permitAll()
+                        .requestMatchers("/auth/register", "/auth/username-available", "/actuator/**", "/error").permitAll()
+                        .requestMatchers("/auth/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .formLogin(Customizer.withDefaults())
@@ -64,6 +111,25 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // JWT проверяется по собственным ключам, reference-токен - по хранилищу авторизаций
+    private static AuthenticationManagerResolver<HttpServletRequest> bearerTokenAuthenticationManagerResolver(
+            JwtDecoder jwtDecoder, OAuth2AuthorizationService authorizationService) {
+        AuthenticationManager jwtManager = new ProviderManager(new JwtAuthenticationProvider(jwtDecoder));
+        AuthenticationManager opaqueManager = new ProviderManager(new OpaqueTokenAuthenticationProvider(
+                new AuthorizationServiceOpaqueTokenIntrospector(authorizationService)));
+
+        BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+        return request -> {
+            String token = bearerTokenResolver.resolve(request);
+            return token != null && isJwt(token) ? jwtManager : opaqueManager;
+        };
+    }
+
+    // JWS compact serialization: header.payload.signature; reference-токены без точек
+    private static boolean isJwt(String token) {
+        return token.chars().filter(c -> c == '.').count() == 2;
+    }
+
     @Bean
     public AuthorizationServerSettings authorizationServerSettings() {
         return AuthorizationServerSettings.builder()
@@ -71,16 +137,27 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * BCrypt на отдельном ограниченном пуле. При увеличении strength старые хеши
+     * перехешируются при следующем успешном входе через UserDetailsPasswordService.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${password.hashing.bcrypt-strength:10}") int strength,
+            @Value("${password.hashing.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${password.hashing.timeout:5s}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity,
+                timeout, meterRegistry);
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder) {
+    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder, LoginThrottle loginThrottle) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
-        return new ProviderManager(authProvider);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+        return new ProviderManager(new ThrottlingAuthenticationProvider(authProvider, loginThrottle));
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package org.work.authservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.SaveMode;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.data.redis.RedisSessionRepository;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP-сессии (логин формой, сохраненный запрос /oauth2/authorize) вне JVM, чтобы узлы
+ * были взаимозаменяемы и рестарт не разлогинивал пользователей.
+ * session.store: redis (по умолчанию) или memory - MapSessionRepository для тестов и одного узла.
+ */
+@Configuration
+public class SessionConfig {
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "session", name = "store", havingValue = "redis", matchIfMissing = true)
+    // ON_SET_ATTRIBUTE: при сохранении пишутся только измененные атрибуты, а не вся сессия
+    @EnableRedisHttpSession(redisNamespace = "auth-service:session", saveMode = SaveMode.ON_SET_ATTRIBUTE)
+    static class Redis {
+
+        @Bean
+        public SessionRepositoryCustomizer<RedisSessionRepository> sessionTimeoutCustomizer(
+                @Value("${session.timeout:30m}") Duration timeout) {
+            return repository -> repository.setDefaultMaxInactiveInterval(timeout);
+        }
+
+        /**
+         * JSON вместо JDK-сериализации: компактнее (без дескрипторов классов) и переживает
+         * изменение классов между релизами. Типы ограничены allowlist модулей Spring Security.
+         */
+        @Bean
+        public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.registerModules(SecurityJackson2Modules.getModules(SessionConfig.class.getClassLoader()));
+            return new GenericJackson2JsonRedisSerializer(objectMapper);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "session", name = "store", havingValue = "memory")
+    @EnableSpringHttpSession
+    static class Memory {
+
+        @Bean
+        public MapSessionRepository sessionRepository(@Value("${session.timeout:30m}") Duration timeout) {
+            MapSessionRepository repository = new MapSessionRepository(new ConcurrentHashMap<>());
+            repository.setDefaultMaxInactiveInterval(timeout);
+            return repository;
+        }
+    }
+}
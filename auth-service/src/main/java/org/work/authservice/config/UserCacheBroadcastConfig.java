@@ -0,0 +1,57 @@
+package org.work.authservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.work.authservice.cache.UserChangedEvent;
+import org.work.authservice.cache.UserSnapshotCache;
+import org.work.authservice.service.UsernameAvailabilityService;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Рассылает изменения пользователей через Redis pub/sub, чтобы все узлы auth-service
+ * сбрасывали запись кэша одновременно, а не ждали истечения TTL, и пополняли фильтр имен.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "user-cache.broadcast", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UserCacheBroadcastConfig {
+
+    static final ChannelTopic TOPIC = new ChannelTopic("auth-service:user-cache:invalidate");
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserSnapshotCache userSnapshotCache;
+    private final UsernameAvailabilityService usernameAvailabilityService;
+
+    @Bean
+    public RedisMessageListenerContainer userCacheListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String username = new String(message.getBody(), StandardCharsets.UTF_8);
+            userSnapshotCache.evict(username);
+            // Пользователь мог быть зарегистрирован на другом узле
+            usernameAvailabilityService.markTaken(username);
+        }, TOPIC);
+        return container;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void broadcast(UserChangedEvent event) {
+        try {
+            redisTemplate.convertAndSend(TOPIC.getTopic(), event.username());
+        } catch (Exception e) {
+            // Остальные узлы догонят по TTL
+            log.warn("Failed to broadcast user cache invalidation for {}: {}", event.username(), e.getMessage());
+        }
+    }
+}
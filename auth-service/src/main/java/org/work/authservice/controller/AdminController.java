@@ -0,0 +1,77 @@
+package org.work.authservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.work.authservice.dto.RegisteredClientRequest;
+import org.work.authservice.dto.RegisteredClientResponse;
+import org.work.authservice.dto.UserImportResponse;
+import org.work.authservice.service.RegisteredClientService;
+import org.work.authservice.service.UserImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/auth/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final UserImportService userImportService;
+    private final RegisteredClientService registeredClientService;
+
+    /**
+     * Массовый импорт пользователей. Тело читается потоком:
+     * text/csv (username,password[,ROLE_A;ROLE_B]) или application/x-ndjson.
+     */
+    @PostMapping("/users/import")
+    public ResponseEntity<UserImportResponse> importUsers(
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, defaultValue = "text/csv") String contentType,
+            InputStream body) throws IOException {
+        UserImportService.Format format = contentType.contains("json")
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+
+        log.info("Bulk user import started, format: {}", format);
+        return ResponseEntity.ok(userImportService.importUsers(body, format));
+    }
+
+    @GetMapping("/clients")
+    public ResponseEntity<List<RegisteredClientResponse>> getClients() {
+        return ResponseEntity.ok(registeredClientService.getClients());
+    }
+
+    @GetMapping("/clients/{clientId}")
+    public ResponseEntity<RegisteredClientResponse> getClient(@PathVariable String clientId) {
+        return ResponseEntity.ok(registeredClientService.getClient(clientId));
+    }
+
+    @PostMapping("/clients")
+    public ResponseEntity<RegisteredClientResponse> createClient(@RequestBody RegisteredClientRequest request) {
+        return ResponseEntity.ok(registeredClientService.createClient(request));
+    }
+
+    @PutMapping("/clients/{clientId}")
+    public ResponseEntity<RegisteredClientResponse> updateClient(@PathVariable String clientId,
+                                                                 @RequestBody RegisteredClientRequest request) {
+        return ResponseEntity.ok(registeredClientService.updateClient(clientId, request));
+    }
+
+    @DeleteMapping("/clients/{clientId}")
+    public ResponseEntity<Void> deleteClient(@PathVariable String clientId) {
+        registeredClientService.deleteClient(clientId);
+        return ResponseEntity.noContent().build();
+    }
+}
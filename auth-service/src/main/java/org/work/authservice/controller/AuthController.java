@@ -9,6 +9,10 @@ import org.work.authservice.dto.AuthRequest;
 import org.work.authservice.dto.UserResponse;
 import org.work.authservice.entity.User;
 import org.work.authservice.service.UserService; // Теперь используем UserService напрямую для регистрации
+import org.work.authservice.service.UsernameAvailabilityService;
+import org.work.authservice.service.ValidationService;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/auth")
@@ -18,6 +22,8 @@ public class AuthController {
 
     // Используем UserService напрямую для регистрации
     private final UserService userService;
+    private final UsernameAvailabilityService usernameAvailabilityService;
+    private final ValidationService validationService;
 
     @PostMapping("/register")
     public ResponseEntity<UserResponse> register(@Valid @RequestBody AuthRequest request) {
@@ -30,4 +36,17 @@ public class AuthController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Живая проверка имени в форме регистрации. "Свободно" чаще всего отвечается из Bloom-фильтра без БД.
+     */
+    @GetMapping("/username-available")
+    public ResponseEntity<Map<String, Object>> usernameAvailable(@RequestParam String username) {
+        validationService.validateUsername(username);
+
+        return ResponseEntity.ok(Map.of(
+                "username", username,
+                "available", usernameAvailabilityService.isAvailable(username)
+        ));
+    }
 }
\ No newline at end of file
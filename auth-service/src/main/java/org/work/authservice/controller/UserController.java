@@ -5,41 +5,37 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.work.authservice.cache.UserIdCache;
 import org.work.authservice.dto.UserResponse;
-import org.work.authservice.entity.User;
-import org.work.authservice.service.UserService;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Все возвращаемые поля, кроме id, уже есть в проверенной аутентификации (имя и роли),
+ * поэтому в БД не ходим; id берется из кэша username -> id.
+ */
 @RestController
 @RequiredArgsConstructor
 @Slf4j
 public class UserController {
 
-    private final UserService userService;
+    private final UserIdCache userIdCache;
 
     @GetMapping("/userinfo")
     public ResponseEntity<Map<String, Object>> getUserInfo(Authentication authentication) {
         String username = authentication.getName();
 
-        log.info("Fetching user info for: {}", username);
-
-        User user = userService.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found despite valid token"));
-
-        List<String> roles = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
+        log.debug("Fetching user info for: {}", username);
 
         // Стандартные OIDC claims
         Map<String, Object> userInfo = Map.of(
-                "sub", user.getUsername(),
-                "preferred_username", user.getUsername(),
-                "roles", roles
+                "sub", username,
+                "preferred_username", username,
+                "roles", roles(authentication)
         );
 
         return ResponseEntity.ok(userInfo);
@@ -50,21 +46,34 @@ public class UserController {
     public ResponseEntity<UserResponse> getCustomUserInfo(Authentication authentication) {
         String username = authentication.getName();
 
-        log.info("Fetching custom user info for: {}", username);
+        log.debug("Fetching custom user info for: {}", username);
 
-        User user = userService.findByUsername(username)
+        Long id = userIdCache.get(username)
                 .orElseThrow(() -> new RuntimeException("User not found despite valid token"));
 
-        List<String> roles = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
-
         UserResponse response = new UserResponse(
-                user.getId(),
-                user.getUsername(),
-                roles
+                id,
+                username,
+                roles(authentication)
         );
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Оба endpoint'а принимают только access token (userInfoSecurityFilterChain).
+     * Для JWT - claim "roles" (authorities там из scope), для reference-токена authorities
+     * уже собраны из "roles" (AuthorizationServiceOpaqueTokenIntrospector).
+     */
+    private static List<String> roles(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+            List<String> roles = jwtAuthentication.getToken().getClaimAsStringList("roles");
+            if (roles != null) {
+                return roles;
+            }
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+    }
+}
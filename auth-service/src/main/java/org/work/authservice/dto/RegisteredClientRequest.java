@@ -0,0 +1,27 @@
+package org.work.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegisteredClientRequest {
+    private String clientId;
+    // Если не задан при создании - генерируется и возвращается один раз в ответе
+    private String clientSecret;
+    private String clientName;
+    private Set<String> authenticationMethods;
+    private Set<String> grantTypes;
+    private Set<String> redirectUris;
+    private Set<String> scopes;
+    private Boolean requireConsent;
+    private Duration accessTokenTtl;
+    private Duration refreshTokenTtl;
+    // self-contained (JWT) или reference (opaque, проверяется через /oauth2/introspect)
+    private String accessTokenFormat;
+}
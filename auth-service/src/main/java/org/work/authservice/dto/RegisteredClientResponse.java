@@ -0,0 +1,29 @@
+package org.work.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegisteredClientResponse {
+    private String id;
+    private String clientId;
+    // Заполняется только при создании клиента или смене секрета
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String clientSecret;
+    private String clientName;
+    private Set<String> authenticationMethods;
+    private Set<String> grantTypes;
+    private Set<String> redirectUris;
+    private Set<String> scopes;
+    private boolean requireConsent;
+    private Duration accessTokenTtl;
+    private Duration refreshTokenTtl;
+    private String accessTokenFormat;
+}
@@ -0,0 +1,29 @@
+package org.work.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class UserImportResponse {
+    private long total;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    private double rowsPerSecond;
+    // Ограничено по размеру, полное число ошибок - в failed
+    private List<RowFailure> failures = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowFailure {
+        private long line;
+        private String username;
+        private String error;
+    }
+}
@@ -0,0 +1,14 @@
+package org.work.authservice.exception;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Слишком много неудачных попыток входа для имени пользователя или IP.
+ * Бросается до проверки пароля, поэтому BCrypt для таких попыток не выполняется.
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package org.work.authservice.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Пул хеширования паролей переполнен или не успел обработать задачу вовремя.
+ * Наследует AuthenticationServiceException, чтобы form login обрабатывал ее как сбой аутентификации.
+ */
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
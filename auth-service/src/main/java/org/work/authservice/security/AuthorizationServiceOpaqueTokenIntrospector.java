@@ -0,0 +1,56 @@
+package org.work.authservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference (opaque) токены для собственных API auth-service: вместо HTTP-вызова
+ * /oauth2/introspect авторизация ищется в том же хранилище, что использует introspection.
+ * Authorities - claim "roles", как у JWT.
+ */
+public class AuthorizationServiceOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+
+    private final OAuth2AuthorizationService authorizationService;
+
+    public AuthorizationServiceOpaqueTokenIntrospector(OAuth2AuthorizationService authorizationService) {
+        this.authorizationService = authorizationService;
+    }
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        OAuth2Authorization authorization = authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN);
+        if (authorization == null) {
+            throw new BadOpaqueTokenException("Unknown access token");
+        }
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+        if (accessToken == null || !accessToken.isActive()) {
+            throw new BadOpaqueTokenException("Access token is not active");
+        }
+
+        Map<String, Object> claims = accessToken.getClaims() != null
+                ? accessToken.getClaims()
+                : Map.of("sub", authorization.getPrincipalName());
+        return new OAuth2IntrospectionAuthenticatedPrincipal(authorization.getPrincipalName(), claims, roles(claims));
+    }
+
+    private static List<GrantedAuthority> roles(Map<String, Object> claims) {
+        if (!(claims.get("roles") instanceof Collection<?> roles)) {
+            return List.of();
+        }
+        return roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+    }
+}
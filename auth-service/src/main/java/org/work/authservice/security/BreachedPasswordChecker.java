@@ -0,0 +1,139 @@
+package org.work.authservice.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Проверка пароля по списку утекших паролей.
+ * Файл - отсортированные по возрастанию (как беззнаковые байты) SHA-1 хеши паролей,
+ * по record-bytes байт на запись без разделителей: 20 - полный хеш, меньше - префикс
+ * (файл компактнее ценой редких ложных срабатываний).
+ * Файл отображается в память кусками по ~2 ГБ и не занимает heap; поиск - бинарный,
+ * в памяти процесса оказываются только реально прочитанные страницы.
+ */
+@Component
+@Slf4j
+public class BreachedPasswordChecker {
+
+    @Value("${password.policy.breached-file:}")
+    private String breachedFile;
+
+    @Value("${password.policy.breached-record-bytes:20}")
+    private int recordBytes;
+
+    private MappedByteBuffer[] segments;
+    private long segmentRecords;
+    private long recordCount;
+
+    @PostConstruct
+    public void open() {
+        if (breachedFile == null || breachedFile.isBlank()) {
+            log.info("Breached password check disabled: password.policy.breached-file is not set");
+            return;
+        }
+        if (recordBytes < 8 || recordBytes > 20) {
+            throw new IllegalStateException("password.policy.breached-record-bytes must be between 8 and 20");
+        }
+
+        Path path = Path.of(breachedFile);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % recordBytes != 0) {
+                throw new IllegalStateException("Breached password file size is not a multiple of " + recordBytes);
+            }
+            recordCount = size / recordBytes;
+            // Размер сегмента кратен размеру записи, чтобы запись не разрывалась между буферами
+            segmentRecords = Integer.MAX_VALUE / recordBytes;
+            long segmentBytes = segmentRecords * recordBytes;
+
+            int segmentCount = (int) ((size + segmentBytes - 1) / segmentBytes);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long offset = i * segmentBytes;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(segmentBytes, size - offset));
+                segments[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            log.info("Breached password list mapped: {} entries from {}", recordCount, path);
+        } catch (IOException e) {
+            log.warn("Breached password check disabled, cannot map {}: {}", path, e.getMessage());
+            segments = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return segments != null;
+    }
+
+    public boolean isBreached(String password) {
+        if (segments == null) {
+            return false;
+        }
+        byte[] hash = sha1(password);
+
+        long low = 0;
+        long high = recordCount - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int cmp = compare(mid, hash);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Сравнивает запись index с первыми recordBytes байтами хеша как беззнаковые числа:
+     * первые 8 байт одним long, остаток побайтно.
+     */
+    private int compare(long index, byte[] hash) {
+        MappedByteBuffer segment = segments[(int) (index / segmentRecords)];
+        int offset = (int) ((index % segmentRecords) * recordBytes);
+
+        int cmp = Long.compareUnsigned(segment.getLong(offset), readLong(hash));
+        if (cmp != 0) {
+            return cmp;
+        }
+        for (int i = 8; i < recordBytes; i++) {
+            cmp = Integer.compare(segment.get(offset + i) & 0xff, hash[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private static long readLong(byte[] bytes) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xff);
+        }
+        return value;
+    }
+
+    private static byte[] sha1(String password) {
+        try {
+            // MessageDigest не потокобезопасен, а создание дешевле блокировки
+            return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package org.work.authservice.security;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.work.authservice.cache.UserChangedEvent;
+import org.work.authservice.cache.UserSnapshot;
+import org.work.authservice.cache.UserSnapshotCache;
 import org.work.authservice.entity.User;
 import org.work.authservice.repository.UserRepository;
 
@@ -14,22 +20,47 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        UserSnapshot user = userSnapshotCache.get(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
+        return toUserDetails(user);
+    }
+
+    /**
+     * Вызывается DaoAuthenticationProvider после успешного входа, если хеш устарел
+     * (например, увеличена стоимость BCrypt): сохраняем новый хеш.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), UserChangedEvent.Reason.PASSWORD_CHANGED));
+        log.info("Password hash upgraded for user: {}", user.getUsername());
+
+        return toUserDetails(UserSnapshot.of(user));
+    }
+
+    // Каждый раз новый объект: ProviderManager стирает пароль в UserDetails после аутентификации
+    private UserDetails toUserDetails(UserSnapshot user) {
         return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword()) // Хэш из БД
-                .authorities(user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getName()))
+                .username(user.username())
+                .password(user.passwordHash()) // Хэш из БД
+                .authorities(user.roles().stream()
+                        .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList()))
                 .build();
     }
-}
\ No newline at end of file
+}
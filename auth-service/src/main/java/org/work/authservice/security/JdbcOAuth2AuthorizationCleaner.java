@@ -0,0 +1,55 @@
+package org.work.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdbcOAuth2AuthorizationService сам ничего не удаляет: периодически чистим авторизации,
+ * у которых истекли все токены. GREATEST в PostgreSQL игнорирует NULL.
+ */
+@Slf4j
+public class JdbcOAuth2AuthorizationCleaner implements DisposableBean {
+
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM oauth2_authorization
+            WHERE GREATEST(authorization_code_expires_at, access_token_expires_at, refresh_token_expires_at,
+                           oidc_id_token_expires_at, user_code_expires_at, device_code_expires_at) < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledExecutorService scheduler;
+
+    public JdbcOAuth2AuthorizationCleaner(JdbcTemplate jdbcTemplate, Duration interval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oauth2-authorization-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::deleteExpired, interval.toSeconds(), interval.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    void deleteExpired() {
+        try {
+            int deleted = jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(Instant.now()));
+            if (deleted > 0) {
+                log.info("Removed {} expired OAuth2 authorizations", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Expired OAuth2 authorization cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,79 @@
+package org.work.authservice.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счетчик в памяти без блокировок: состояние ключа упаковано в один AtomicLong
+ * (номер окна - старшие 32 бита, счетчик предыдущего окна - 16 бит, текущего - 16 бит)
+ * и обновляется CAS.
+ */
+public class LocalSlidingWindowCounter implements SlidingWindowCounter {
+
+    private static final long COUNT_MASK = 0xFFFFL;
+
+    private final long windowMillis;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> windows = new ConcurrentHashMap<>();
+
+    public LocalSlidingWindowCounter(long windowMillis, int maxKeys) {
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public double estimate(String key, long nowMillis) {
+        AtomicLong state = windows.get(key);
+        if (state == null) {
+            return 0;
+        }
+        long packed = roll(state.get(), nowMillis / windowMillis);
+        double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+        return ((packed >>> 16) & COUNT_MASK) * previousWeight + (packed & COUNT_MASK);
+    }
+
+    @Override
+    public void increment(String key, long nowMillis) {
+        AtomicLong state = windows.get(key);
+        if (state == null) {
+            // Защита от раздувания памяти перебором случайных имен; лимит по IP при этом продолжает работать
+            if (windows.size() >= maxKeys) {
+                return;
+            }
+            state = windows.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        long window = nowMillis / windowMillis;
+        state.updateAndGet(packed -> {
+            long rolled = roll(packed, window);
+            return (rolled & COUNT_MASK) == COUNT_MASK ? rolled : rolled + 1;
+        });
+    }
+
+    @Override
+    public void reset(String key) {
+        windows.remove(key);
+    }
+
+    /**
+     * Удаляет ключи, у которых и текущее, и предыдущее окно уже в прошлом.
+     */
+    public void evictExpired(long nowMillis) {
+        long window = nowMillis / windowMillis;
+        windows.values().removeIf(state -> (state.get() >>> 32) < window - 1);
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    private static long roll(long packed, long window) {
+        long stateWindow = packed >>> 32;
+        if (stateWindow == window) {
+            return packed;
+        }
+        if (stateWindow == window - 1) {
+            return (window << 32) | ((packed & COUNT_MASK) << 16);
+        }
+        return window << 32;
+    }
+}
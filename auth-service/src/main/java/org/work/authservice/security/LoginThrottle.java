@@ -0,0 +1,130 @@
+package org.work.authservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.work.authservice.exception.LoginThrottledException;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение неудачных попыток входа в скользящем окне отдельно по имени пользователя
+ * (подбор пароля к одному аккаунту) и по IP (перебор многих аккаунтов с одного адреса).
+ * Успешный вход сбрасывает счетчик имени, но не IP.
+ */
+@Component
+@Slf4j
+public class LoginThrottle implements DisposableBean {
+
+    private static final String THROTTLED_MESSAGE = "Too many failed login attempts, try again later";
+
+    private final boolean enabled;
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerIp;
+    private final LocalSlidingWindowCounter localUsernames;
+    private final LocalSlidingWindowCounter localIps;
+    private final SlidingWindowCounter usernames;
+    private final SlidingWindowCounter ips;
+    private final ScheduledExecutorService evictor;
+    private final Counter throttledByUsername;
+    private final Counter throttledByIp;
+
+    public LoginThrottle(StringRedisTemplate redisTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${login-throttle.enabled:true}") boolean enabled,
+                         @Value("${login-throttle.window:15m}") Duration window,
+                         @Value("${login-throttle.max-failures-per-username:5}") int maxFailuresPerUsername,
+                         @Value("${login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                         @Value("${login-throttle.max-tracked-keys:100000}") int maxTrackedKeys,
+                         @Value("${login-throttle.redis.enabled:false}") boolean redisEnabled) {
+        this.enabled = enabled;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+
+        long windowMillis = window.toMillis();
+        this.localUsernames = new LocalSlidingWindowCounter(windowMillis, maxTrackedKeys);
+        this.localIps = new LocalSlidingWindowCounter(windowMillis, maxTrackedKeys);
+        this.usernames = redisEnabled
+                ? new RedisSlidingWindowCounter(redisTemplate, "auth-service:login-failures:user:", windowMillis, localUsernames)
+                : localUsernames;
+        this.ips = redisEnabled
+                ? new RedisSlidingWindowCounter(redisTemplate, "auth-service:login-failures:ip:", windowMillis, localIps)
+                : localIps;
+
+        this.throttledByUsername = Counter.builder("auth.login.throttled")
+                .description("Login attempts rejected before password check")
+                .tag("scope", "username")
+                .register(meterRegistry);
+        this.throttledByIp = Counter.builder("auth.login.throttled")
+                .description("Login attempts rejected before password check")
+                .tag("scope", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", () -> localUsernames.size() + localIps.size())
+                .description("Usernames and IPs with failure counters in memory")
+                .register(meterRegistry);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-throttle-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, window.toSeconds() / 2);
+        evictor.scheduleWithFixedDelay(() -> {
+            long now = System.currentTimeMillis();
+            localUsernames.evictExpired(now);
+            localIps.evictExpired(now);
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Проверка до хеширования пароля: отказ стоит микросекунды вместо сотен миллисекунд BCrypt.
+     */
+    public void checkAllowed(String username, String ip) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (ip != null && ips.estimate(ip, now) >= maxFailuresPerIp) {
+            throttledByIp.increment();
+            log.debug("Login throttled for IP {}", ip);
+            throw new LoginThrottledException(THROTTLED_MESSAGE);
+        }
+        if (username != null && usernames.estimate(username, now) >= maxFailuresPerUsername) {
+            throttledByUsername.increment();
+            log.debug("Login throttled for user {}", username);
+            throw new LoginThrottledException(THROTTLED_MESSAGE);
+        }
+    }
+
+    public void onFailure(String username, String ip) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (username != null) {
+            usernames.increment(username, now);
+        }
+        if (ip != null) {
+            ips.increment(ip, now);
+        }
+    }
+
+    public void onSuccess(String username) {
+        if (enabled && username != null) {
+            usernames.reset(username);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        evictor.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package org.work.authservice.security;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsent;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Согласия пользователей в Redis: одна строка с authorities через пробел на пару клиент/пользователь.
+ */
+public class RedisOAuth2AuthorizationConsentService implements OAuth2AuthorizationConsentService {
+
+    private static final String CONSENT_KEY = "auth-service:oauth2:consent:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public RedisOAuth2AuthorizationConsentService(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public void save(OAuth2AuthorizationConsent authorizationConsent) {
+        String authorities = authorizationConsent.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(" "));
+        redisTemplate.opsForValue().set(
+                key(authorizationConsent.getRegisteredClientId(), authorizationConsent.getPrincipalName()),
+                authorities, ttl);
+    }
+
+    @Override
+    public void remove(OAuth2AuthorizationConsent authorizationConsent) {
+        redisTemplate.delete(key(authorizationConsent.getRegisteredClientId(), authorizationConsent.getPrincipalName()));
+    }
+
+    @Override
+    public OAuth2AuthorizationConsent findById(String registeredClientId, String principalName) {
+        String authorities = redisTemplate.opsForValue().get(key(registeredClientId, principalName));
+        if (!StringUtils.hasText(authorities)) {
+            return null;
+        }
+        OAuth2AuthorizationConsent.Builder builder = OAuth2AuthorizationConsent.withId(registeredClientId, principalName);
+        for (String authority : authorities.split(" ")) {
+            builder.authority(new SimpleGrantedAuthority(authority));
+        }
+        return builder.build();
+    }
+
+    private static String key(String registeredClientId, String principalName) {
+        return CONSENT_KEY + registeredClientId + ":" + principalName;
+    }
+}
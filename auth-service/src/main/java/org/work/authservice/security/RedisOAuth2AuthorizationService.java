@@ -0,0 +1,314 @@
+package org.work.authservice.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Хранилище OAuth2Authorization в Redis, общее для всех узлов auth-service.
+ * Авторизация - hash с полями по аналогии с колонками JdbcOAuth2AuthorizationService
+ * (атрибуты и метаданные токенов в JSON), TTL по самому позднему сроку жизни токена.
+ * Для поиска по токену - индексные ключи по SHA-256 значения с TTL этого токена,
+ * сами токены в именах ключей не хранятся.
+ */
+public class RedisOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private static final String AUTHORIZATION_KEY = "auth-service:oauth2:authorization:";
+    private static final String INDEX_KEY = "auth-service:oauth2:token:";
+    private static final String STATE = OAuth2ParameterNames.STATE;
+
+    private enum TokenKind {
+        CODE(OAuth2ParameterNames.CODE, OAuth2AuthorizationCode.class),
+        ACCESS_TOKEN(OAuth2ParameterNames.ACCESS_TOKEN, OAuth2AccessToken.class),
+        REFRESH_TOKEN(OAuth2ParameterNames.REFRESH_TOKEN, OAuth2RefreshToken.class),
+        ID_TOKEN("id_token", OidcIdToken.class),
+        USER_CODE(OAuth2ParameterNames.USER_CODE, OAuth2UserCode.class),
+        DEVICE_CODE(OAuth2ParameterNames.DEVICE_CODE, OAuth2DeviceCode.class);
+
+        private final String type;
+        private final Class<? extends OAuth2Token> tokenClass;
+
+        TokenKind(String type, Class<? extends OAuth2Token> tokenClass) {
+            this.type = type;
+            this.tokenClass = tokenClass;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final RegisteredClientRepository registeredClientRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration pendingTtl;
+
+    public RedisOAuth2AuthorizationService(StringRedisTemplate redisTemplate,
+                                           RegisteredClientRepository registeredClientRepository,
+                                           Duration pendingTtl) {
+        this.redisTemplate = redisTemplate;
+        this.registeredClientRepository = registeredClientRepository;
+        this.pendingTtl = pendingTtl;
+        this.objectMapper = new ObjectMapper();
+        ClassLoader classLoader = RedisOAuth2AuthorizationService.class.getClassLoader();
+        this.objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        this.objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Instant now = Instant.now();
+        Map<String, String> fields = new HashMap<>();
+        fields.put("client", authorization.getRegisteredClientId());
+        fields.put("principal", authorization.getPrincipalName());
+        fields.put("grant", authorization.getAuthorizationGrantType().getValue());
+        if (!authorization.getAuthorizedScopes().isEmpty()) {
+            fields.put("scopes", String.join(" ", authorization.getAuthorizedScopes()));
+        }
+        if (!authorization.getAttributes().isEmpty()) {
+            fields.put("attributes", write(authorization.getAttributes()));
+        }
+
+        Map<String, Duration> indexes = new LinkedHashMap<>();
+        String state = authorization.getAttribute(STATE);
+        if (StringUtils.hasText(state)) {
+            indexes.put(indexKey(STATE, state), pendingTtl);
+        }
+
+        Instant expiresAt = null;
+        for (TokenKind kind : TokenKind.values()) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(kind.tokenClass);
+            if (token == null) {
+                continue;
+            }
+            OAuth2Token value = token.getToken();
+            putToken(fields, kind, token);
+            Instant tokenExpiresAt = value.getExpiresAt() != null ? value.getExpiresAt() : now.plus(pendingTtl);
+            indexes.put(indexKey(kind.type, value.getTokenValue()), ttl(now, tokenExpiresAt));
+            if (expiresAt == null || tokenExpiresAt.isAfter(expiresAt)) {
+                expiresAt = tokenExpiresAt;
+            }
+        }
+        // Авторизация без токенов - ожидает согласия пользователя
+        Duration ttl = expiresAt != null ? ttl(now, expiresAt) : pendingTtl;
+
+        String key = AUTHORIZATION_KEY + authorization.getId();
+        String id = authorization.getId();
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            public List<Object> execute(RedisOperations operations) {
+                operations.multi();
+                operations.delete(key);
+                operations.opsForHash().putAll(key, fields);
+                operations.expire(key, ttl);
+                indexes.forEach((indexKey, indexTtl) -> operations.opsForValue().set(indexKey, id, indexTtl));
+                return operations.exec();
+            }
+        });
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        List<String> keys = new ArrayList<>();
+        keys.add(AUTHORIZATION_KEY + authorization.getId());
+        String state = authorization.getAttribute(STATE);
+        if (StringUtils.hasText(state)) {
+            keys.add(indexKey(STATE, state));
+        }
+        for (TokenKind kind : TokenKind.values()) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(kind.tokenClass);
+            if (token != null) {
+                keys.add(indexKey(kind.type, token.getToken().getTokenValue()));
+            }
+        }
+        redisTemplate.delete(keys);
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(AUTHORIZATION_KEY + id);
+        return fields.isEmpty() ? null : toAuthorization(id, fields);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        List<String> types = new ArrayList<>();
+        if (tokenType == null) {
+            types.add(STATE);
+            for (TokenKind kind : TokenKind.values()) {
+                types.add(kind.type);
+            }
+        } else {
+            types.add(tokenType.getValue());
+        }
+
+        List<String> ids = redisTemplate.opsForValue().multiGet(types.stream().map(type -> indexKey(type, token)).toList());
+        if (ids == null) {
+            return null;
+        }
+        for (int i = 0; i < types.size(); i++) {
+            String id = ids.get(i);
+            if (id == null) {
+                continue;
+            }
+            OAuth2Authorization authorization = findById(id);
+            // Индекс мог пережить замену токена в авторизации - сверяем значение
+            if (authorization != null && hasToken(authorization, types.get(i), token)) {
+                return authorization;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasToken(OAuth2Authorization authorization, String type, String token) {
+        if (STATE.equals(type)) {
+            return token.equals(authorization.getAttribute(STATE));
+        }
+        for (TokenKind kind : TokenKind.values()) {
+            if (kind.type.equals(type)) {
+                OAuth2Authorization.Token<? extends OAuth2Token> stored = authorization.getToken(kind.tokenClass);
+                return stored != null && token.equals(stored.getToken().getTokenValue());
+            }
+        }
+        return false;
+    }
+
+    private void putToken(Map<String, String> fields, TokenKind kind, OAuth2Authorization.Token<? extends OAuth2Token> token) {
+        OAuth2Token value = token.getToken();
+        String prefix = kind.type + ".";
+        fields.put(prefix + "value", value.getTokenValue());
+        if (value.getIssuedAt() != null) {
+            fields.put(prefix + "iat", Long.toString(value.getIssuedAt().toEpochMilli()));
+        }
+        if (value.getExpiresAt() != null) {
+            fields.put(prefix + "exp", Long.toString(value.getExpiresAt().toEpochMilli()));
+        }
+        if (!token.getMetadata().isEmpty()) {
+            fields.put(prefix + "meta", write(token.getMetadata()));
+        }
+        if (value instanceof OAuth2AccessToken accessToken && !accessToken.getScopes().isEmpty()) {
+            fields.put(prefix + "scopes", String.join(" ", accessToken.getScopes()));
+        }
+    }
+
+    private OAuth2Authorization toAuthorization(String id, Map<Object, Object> fields) {
+        String registeredClientId = (String) fields.get("client");
+        RegisteredClient registeredClient = registeredClientRepository.findById(registeredClientId);
+        if (registeredClient == null) {
+            throw new DataRetrievalFailureException("The RegisteredClient with id '" + registeredClientId
+                    + "' was not found in the RegisteredClientRepository.");
+        }
+
+        OAuth2Authorization.Builder builder = OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(id)
+                .principalName((String) fields.get("principal"))
+                .authorizationGrantType(new AuthorizationGrantType((String) fields.get("grant")))
+                .authorizedScopes(scopes(fields.get("scopes")));
+        String attributes = (String) fields.get("attributes");
+        if (attributes != null) {
+            builder.attributes(map -> map.putAll(read(attributes)));
+        }
+
+        for (TokenKind kind : TokenKind.values()) {
+            String prefix = kind.type + ".";
+            String value = (String) fields.get(prefix + "value");
+            if (value == null) {
+                continue;
+            }
+            Instant issuedAt = instant(fields.get(prefix + "iat"));
+            Instant expiresAt = instant(fields.get(prefix + "exp"));
+            String meta = (String) fields.get(prefix + "meta");
+            Map<String, Object> metadata = meta != null ? read(meta) : Map.of();
+
+            OAuth2Token token = switch (kind) {
+                case CODE -> new OAuth2AuthorizationCode(value, issuedAt, expiresAt);
+                case ACCESS_TOKEN -> new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, value, issuedAt, expiresAt,
+                        scopes(fields.get(prefix + "scopes")));
+                case REFRESH_TOKEN -> new OAuth2RefreshToken(value, issuedAt, expiresAt);
+                case ID_TOKEN -> new OidcIdToken(value, issuedAt, expiresAt,
+                        claims(metadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME)));
+                case USER_CODE -> new OAuth2UserCode(value, issuedAt, expiresAt);
+                case DEVICE_CODE -> new OAuth2DeviceCode(value, issuedAt, expiresAt);
+            };
+            builder.token(token, map -> map.putAll(metadata));
+        }
+        return builder.build();
+    }
+
+    private static Set<String> scopes(Object value) {
+        return value != null ? new HashSet<>(Arrays.asList(((String) value).split(" "))) : Set.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> claims(Object claims) {
+        return (Map<String, Object>) claims;
+    }
+
+    private static Instant instant(Object epochMilli) {
+        return epochMilli != null ? Instant.ofEpochMilli(Long.parseLong((String) epochMilli)) : null;
+    }
+
+    private static Duration ttl(Instant now, Instant expiresAt) {
+        Duration ttl = Duration.between(now, expiresAt);
+        return ttl.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : ttl;
+    }
+
+    private static String indexKey(String type, String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return INDEX_KEY + type + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Object> read(String data) {
+        try {
+            return objectMapper.readValue(data, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+}
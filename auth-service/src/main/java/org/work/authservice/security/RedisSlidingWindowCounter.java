@@ -0,0 +1,82 @@
+package org.work.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Тот же счетчик в Redis, общий для всех узлов: ключ на каждое фиксированное окно, живет два окна.
+ * При недоступности Redis используется локальный счетчик.
+ */
+@Slf4j
+public class RedisSlidingWindowCounter implements SlidingWindowCounter {
+
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            local count = redis.call('INCR', KEYS[1])
+            if count == 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end
+            return count
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final long windowMillis;
+    private final SlidingWindowCounter fallback;
+
+    public RedisSlidingWindowCounter(StringRedisTemplate redisTemplate, String keyPrefix, long windowMillis,
+                                     SlidingWindowCounter fallback) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.windowMillis = windowMillis;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public double estimate(String key, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        try {
+            List<String> counts = redisTemplate.opsForValue().multiGet(List.of(key(key, window), key(key, window - 1)));
+            if (counts == null) {
+                return 0;
+            }
+            double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+            return parse(counts.get(1)) * previousWeight + parse(counts.get(0));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for login throttling, using local counters: {}", e.getMessage());
+            return fallback.estimate(key, nowMillis);
+        }
+    }
+
+    @Override
+    public void increment(String key, long nowMillis) {
+        try {
+            redisTemplate.execute(INCREMENT_SCRIPT, List.of(key(key, nowMillis / windowMillis)),
+                    Long.toString(windowMillis * 2));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for login throttling, using local counters: {}", e.getMessage());
+            fallback.increment(key, nowMillis);
+        }
+    }
+
+    @Override
+    public void reset(String key) {
+        long window = System.currentTimeMillis() / windowMillis;
+        try {
+            redisTemplate.delete(List.of(key(key, window), key(key, window - 1)));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for login throttling reset: {}", e.getMessage());
+        }
+        fallback.reset(key);
+    }
+
+    private String key(String key, long window) {
+        return keyPrefix + key + ":" + window;
+    }
+
+    private static long parse(String count) {
+        return count == null ? 0 : Long.parseLong(count);
+    }
+}
@@ -0,0 +1,279 @@
+package org.work.authservice.security;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.PasswordBasedDecrypter;
+import com.nimbusds.jose.crypto.PasswordBasedEncrypter;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Хранилище ключей подписи JWT с ротацией.
+ * Ключи (с приватной частью) лежат в локальном файле JWK Set, поэтому переживают рестарт
+ * и одинаковы на всех узлах, которые смотрят на один файл. При заданном пароле файл
+ * зашифрован (JWE, PBES2-HS512+A256KW / A256GCM), без пароля - открытый JSON;
+ * в обоих случаях файл доступен только владельцу.
+ * Новый ключ сначала только публикуется в JWKS (publishAhead), чтобы resource server'ы успели
+ * его подхватить, затем становится активным; старый остается в JWKS еще retention,
+ * пока не истекут подписанные им токены.
+ */
+@Slf4j
+public class SigningKeyManager implements JWKSource<SecurityContext>, DisposableBean {
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+    private static final int PBES2_SALT_LENGTH = 16;
+    private static final int PBES2_ITERATIONS = 310_000;
+
+    private final Path keysFile;
+    private final Path lockFile;
+    private final String password;
+    private final JWSAlgorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration retention;
+    private final boolean rotationEnabled;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile JWKSet jwkSet = new JWKSet();
+    private volatile JWK activeKey;
+
+    public SigningKeyManager(Path keysFile, String password, JWSAlgorithm algorithm, Duration rotationInterval,
+                             Duration publishAhead, Duration retention, boolean rotationEnabled) {
+        if (!JWSAlgorithm.RS256.equals(algorithm) && !JWSAlgorithm.ES256.equals(algorithm)) {
+            throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
+        }
+        this.keysFile = keysFile;
+        this.lockFile = keysFile.resolveSibling(keysFile.getFileName() + ".lock");
+        this.password = password == null || password.isEmpty() ? null : password;
+        if (this.password == null) {
+            log.warn("auth.signing.keys-password is not set, signing keys are stored unencrypted in {}", keysFile);
+        }
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.publishAhead = publishAhead;
+        this.retention = retention;
+        this.rotationEnabled = rotationEnabled;
+
+        refresh();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "signing-key-rotation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(60, Math.min(publishAhead.toSeconds() / 2, TimeUnit.HOURS.toSeconds(1)));
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, period, period, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        return jwkSelector.select(jwkSet);
+    }
+
+    public String activeKeyId() {
+        return activeKey.getKeyID();
+    }
+
+    public JWSAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Перечитывает файл и, если включена ротация, выпускает новый ключ и удаляет отслужившие.
+     * Файловая блокировка не дает двум узлам с общим файлом ротировать одновременно.
+     */
+    public synchronized void refresh() {
+        try {
+            Files.createDirectories(keysFile.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Instant now = Instant.now();
+                String content = Files.exists(keysFile) ? Files.readString(keysFile, StandardCharsets.UTF_8) : null;
+                List<JWK> keys = parse(content);
+                // Открытый файл при заданном пароле перешифровываем при первой записи
+                boolean changed = content != null && password != null && !isEncrypted(content);
+
+                if (rotationEnabled) {
+                    JWK newest = keys.stream()
+                            .filter(this::hasConfiguredAlgorithm)
+                            .max(Comparator.comparing(SigningKeyManager::issuedAt))
+                            .orElse(null);
+                    if (newest == null) {
+                        // Первый ключ (или смена алгоритма): активен сразу, без периода публикации
+                        keys.add(generate(now.minus(publishAhead)));
+                        changed = true;
+                    } else if (issuedAt(newest).plus(rotationInterval).minus(publishAhead).isBefore(now)) {
+                        keys.add(generate(now));
+                        changed = true;
+                    }
+                    changed |= prune(keys, now);
+                    if (changed) {
+                        save(keys);
+                    }
+                }
+
+                publish(keys, now);
+            }
+        } catch (IOException | ParseException | JOSEException e) {
+            if (activeKey == null) {
+                throw new IllegalStateException("Cannot load signing keys from " + keysFile, e);
+            }
+            log.error("Signing key refresh failed, keeping current keys: {}", e.getMessage());
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Signing key refresh failed", e);
+        }
+    }
+
+    private void publish(List<JWK> keys, Instant now) {
+        JWK active = keys.stream()
+                .filter(this::hasConfiguredAlgorithm)
+                .filter(key -> !activation(key).isAfter(now))
+                .max(Comparator.comparing(SigningKeyManager::issuedAt))
+                .orElseThrow(() -> new IllegalStateException("No active " + algorithm + " signing key in " + keysFile));
+
+        if (activeKey == null || !activeKey.getKeyID().equals(active.getKeyID())) {
+            log.info("Active signing key: {} ({}), published keys: {}", active.getKeyID(), algorithm, keys.size());
+        }
+        jwkSet = new JWKSet(keys);
+        activeKey = active;
+    }
+
+    /**
+     * Ключ можно удалить, когда следующий за ним ключ активен дольше retention.
+     */
+    private boolean prune(List<JWK> keys, Instant now) {
+        keys.sort(Comparator.comparing(SigningKeyManager::issuedAt));
+        List<JWK> expired = new ArrayList<>();
+        for (int i = 0; i < keys.size() - 1; i++) {
+            Instant retiredAt = activation(keys.get(i + 1));
+            if (retiredAt.plus(retention).isBefore(now)) {
+                expired.add(keys.get(i));
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Removing retired signing keys: {}", expired.stream().map(JWK::getKeyID).toList());
+            keys.removeAll(expired);
+        }
+        return !expired.isEmpty();
+    }
+
+    private JWK generate(Instant issuedAt) throws JOSEException {
+        String keyId = UUID.randomUUID().toString();
+        Date issueTime = Date.from(issuedAt);
+        JWK key = JWSAlgorithm.ES256.equals(algorithm)
+                ? new ECKeyGenerator(Curve.P_256)
+                        .keyUse(KeyUse.SIGNATURE).algorithm(algorithm).keyID(keyId).issueTime(issueTime)
+                        .generate()
+                : new RSAKeyGenerator(2048)
+                        .keyUse(KeyUse.SIGNATURE).algorithm(algorithm).keyID(keyId).issueTime(issueTime)
+                        .generate();
+        log.info("Generated {} signing key {}", algorithm, keyId);
+        return key;
+    }
+
+    private List<JWK> parse(String content) throws ParseException, JOSEException {
+        if (content == null) {
+            return new ArrayList<>();
+        }
+        if (isEncrypted(content)) {
+            if (password == null) {
+                throw new IllegalStateException("Signing keys in " + keysFile + " are encrypted, auth.signing.keys-password is not set");
+            }
+            JWEObject jwe = JWEObject.parse(content.trim());
+            jwe.decrypt(new PasswordBasedDecrypter(password));
+            content = jwe.getPayload().toString();
+        }
+        return new ArrayList<>(JWKSet.parse(content).getKeys());
+    }
+
+    private void save(List<JWK> keys) throws IOException, JOSEException {
+        // false - вместе с приватными частями ключей
+        String content = new JWKSet(keys).toString(false);
+        if (password != null) {
+            JWEObject jwe = new JWEObject(
+                    new JWEHeader(JWEAlgorithm.PBES2_HS512_A256KW, EncryptionMethod.A256GCM),
+                    new Payload(content));
+            jwe.encrypt(new PasswordBasedEncrypter(password, PBES2_SALT_LENGTH, PBES2_ITERATIONS));
+            content = jwe.serialize();
+        }
+
+        Path tmp = keysFile.resolveSibling(keysFile.getFileName() + ".tmp");
+        // Права выставляются при создании файла, до записи ключей
+        Files.deleteIfExists(tmp);
+        try {
+            FileAttribute<Set<PosixFilePermission>> ownerOnly = PosixFilePermissions.asFileAttribute(OWNER_ONLY);
+            Files.createFile(tmp, ownerOnly);
+        } catch (UnsupportedOperationException e) {
+            // Не POSIX файловая система
+            Files.createFile(tmp);
+        }
+        Files.writeString(tmp, content, StandardCharsets.UTF_8, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Files.move(tmp, keysFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean isEncrypted(String content) {
+        // JWK Set - JSON-объект, JWE compact - строка base64url через точки
+        return !content.isBlank() && !content.stripLeading().startsWith("{");
+    }
+
+    private boolean hasConfiguredAlgorithm(JWK key) {
+        return algorithm.equals(key.getAlgorithm());
+    }
+
+    private Instant activation(JWK key) {
+        return issuedAt(key).plus(publishAhead);
+    }
+
+    private static Instant issuedAt(JWK key) {
+        return key.getIssueTime() != null ? key.getIssueTime().toInstant() : Instant.EPOCH;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
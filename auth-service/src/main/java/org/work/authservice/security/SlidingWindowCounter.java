@@ -0,0 +1,14 @@
+package org.work.authservice.security;
+
+/**
+ * Счетчик событий в скользящем окне. Окно аппроксимируется двумя фиксированными:
+ * оценка = предыдущее * (доля предыдущего окна, еще попадающая в скользящее) + текущее.
+ */
+public interface SlidingWindowCounter {
+
+    double estimate(String key, long nowMillis);
+
+    void increment(String key, long nowMillis);
+
+    void reset(String key);
+}
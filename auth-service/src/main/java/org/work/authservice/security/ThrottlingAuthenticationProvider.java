@@ -0,0 +1,48 @@
+package org.work.authservice.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Обертка над DaoAuthenticationProvider: проверяет LoginThrottle до сравнения пароля
+ * и считает неудачные попытки. Учитываются только неверные учетные данные,
+ * отказ пула хеширования ошибкой пользователя не считается.
+ */
+public class ThrottlingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final LoginThrottle loginThrottle;
+
+    public ThrottlingAuthenticationProvider(AuthenticationProvider delegate, LoginThrottle loginThrottle) {
+        this.delegate = delegate;
+        this.loginThrottle = loginThrottle;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String ip = authentication.getDetails() instanceof WebAuthenticationDetails details
+                ? details.getRemoteAddress()
+                : null;
+
+        loginThrottle.checkAllowed(username, ip);
+        try {
+            Authentication result = delegate.authenticate(authentication);
+            if (result != null) {
+                loginThrottle.onSuccess(username);
+            }
+            return result;
+        } catch (BadCredentialsException e) {
+            loginThrottle.onFailure(username, ip);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,240 @@
+package org.work.authservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.client.JdbcRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
+import org.springframework.security.oauth2.server.authorization.settings.OAuth2TokenFormat;
+import org.springframework.security.oauth2.server.authorization.settings.TokenSettings;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.work.authservice.cache.RegisteredClientChangedEvent;
+import org.work.authservice.dto.RegisteredClientRequest;
+import org.work.authservice.dto.RegisteredClientResponse;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Управление OAuth2-клиентами через админку. Клиенты хранятся в oauth2_registered_client,
+ * секрет хешируется тем же PasswordEncoder, которым Authorization Server его проверяет.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegisteredClientService {
+
+    private static final Duration DEFAULT_ACCESS_TOKEN_TTL = Duration.ofHours(1);
+    private static final Duration DEFAULT_REFRESH_TOKEN_TTL = Duration.ofDays(30);
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    // Те же колонки, что читает JdbcRegisteredClientRepository
+    private static final String SELECT_CLIENTS = """
+            SELECT id, client_id, client_id_issued_at, client_secret, client_secret_expires_at, client_name,
+                   client_authentication_methods, authorization_grant_types, redirect_uris, post_logout_redirect_uris,
+                   scopes, client_settings, token_settings
+            FROM oauth2_registered_client
+            ORDER BY client_id
+            """;
+    private static final RowMapper<RegisteredClient> CLIENT_ROW_MAPPER =
+            new JdbcRegisteredClientRepository.RegisteredClientRowMapper();
+
+    private final RegisteredClientRepository registeredClientRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Список читается одним запросом мимо кэша клиентов: админский просмотр не должен
+     * вытеснять из него клиентов, через которых идут токены.
+     */
+    @Transactional(readOnly = true)
+    public List<RegisteredClientResponse> getClients() {
+        return jdbcTemplate.query(SELECT_CLIENTS, CLIENT_ROW_MAPPER)
+                .stream()
+                .map(client -> toResponse(client, null))
+                .toList();
+    }
+
+    public RegisteredClientResponse getClient(String clientId) {
+        return toResponse(findClient(clientId), null);
+    }
+
+    @Transactional
+    public RegisteredClientResponse createClient(RegisteredClientRequest request) {
+        if (!StringUtils.hasText(request.getClientId())) {
+            throw new RuntimeException("Client id is required");
+        }
+        if (registeredClientRepository.findByClientId(request.getClientId()) != null) {
+            throw new RuntimeException("Client id is already in use");
+        }
+
+        String secret = StringUtils.hasText(request.getClientSecret()) ? request.getClientSecret() : generateSecret();
+        RegisteredClient.Builder builder = RegisteredClient.withId(UUID.randomUUID().toString())
+                .clientId(request.getClientId())
+                .clientIdIssuedAt(Instant.now())
+                .clientSecret(passwordEncoder.encode(secret));
+        RegisteredClient client = apply(builder, request, null);
+
+        registeredClientRepository.save(client);
+        eventPublisher.publishEvent(new RegisteredClientChangedEvent(client.getId(), client.getClientId()));
+        log.info("Registered OAuth2 client: {}", client.getClientId());
+        return toResponse(client, secret);
+    }
+
+    @Transactional
+    public RegisteredClientResponse updateClient(String clientId, RegisteredClientRequest request) {
+        RegisteredClient existing = findClient(clientId);
+
+        RegisteredClient.Builder builder = RegisteredClient.from(existing);
+        String secret = null;
+        if (StringUtils.hasText(request.getClientSecret())) {
+            secret = request.getClientSecret();
+            builder.clientSecret(passwordEncoder.encode(secret));
+        }
+        RegisteredClient client = apply(builder, request, existing);
+
+        registeredClientRepository.save(client);
+        eventPublisher.publishEvent(new RegisteredClientChangedEvent(client.getId(), client.getClientId()));
+        log.info("Updated OAuth2 client: {}", client.getClientId());
+        return toResponse(client, secret);
+    }
+
+    @Transactional
+    public void deleteClient(String clientId) {
+        RegisteredClient existing = findClient(clientId);
+        jdbcTemplate.update("DELETE FROM oauth2_registered_client WHERE id = ?", existing.getId());
+        eventPublisher.publishEvent(new RegisteredClientChangedEvent(existing.getId(), existing.getClientId()));
+        log.info("Deleted OAuth2 client: {}", clientId);
+    }
+
+    private RegisteredClient findClient(String clientId) {
+        RegisteredClient client = registeredClientRepository.findByClientId(clientId);
+        if (client == null) {
+            throw new RuntimeException("Client not found: " + clientId);
+        }
+        return client;
+    }
+
+    /**
+     * Переносит поля запроса в builder. Незаданные поля при обновлении берутся из existing,
+     * при создании - значения по умолчанию.
+     */
+    private RegisteredClient apply(RegisteredClient.Builder builder, RegisteredClientRequest request, RegisteredClient existing) {
+        if (StringUtils.hasText(request.getClientName())) {
+            builder.clientName(request.getClientName());
+        } else if (existing == null) {
+            builder.clientName(request.getClientId());
+        }
+
+        if (request.getAuthenticationMethods() != null) {
+            builder.clientAuthenticationMethods(methods -> {
+                methods.clear();
+                request.getAuthenticationMethods().forEach(method -> methods.add(new ClientAuthenticationMethod(method)));
+            });
+        } else if (existing == null) {
+            builder.clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC);
+        }
+
+        if (request.getGrantTypes() != null) {
+            builder.authorizationGrantTypes(grantTypes -> {
+                grantTypes.clear();
+                request.getGrantTypes().forEach(grantType -> grantTypes.add(new AuthorizationGrantType(grantType)));
+            });
+        } else if (existing == null) {
+            builder.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS);
+        }
+
+        if (request.getRedirectUris() != null) {
+            builder.redirectUris(uris -> {
+                uris.clear();
+                uris.addAll(request.getRedirectUris());
+            });
+        }
+        if (request.getScopes() != null) {
+            builder.scopes(scopes -> {
+                scopes.clear();
+                scopes.addAll(request.getScopes());
+            });
+        }
+
+        ClientSettings clientSettings = existing != null ? existing.getClientSettings() : ClientSettings.builder().build();
+        if (request.getRequireConsent() != null) {
+            clientSettings = ClientSettings.withSettings(clientSettings.getSettings())
+                    .requireAuthorizationConsent(request.getRequireConsent())
+                    .build();
+        }
+        builder.clientSettings(clientSettings);
+
+        TokenSettings tokenSettings = existing != null
+                ? existing.getTokenSettings()
+                : TokenSettings.builder()
+                        .accessTokenTimeToLive(DEFAULT_ACCESS_TOKEN_TTL)
+                        .refreshTokenTimeToLive(DEFAULT_REFRESH_TOKEN_TTL)
+                        .build();
+        if (request.getAccessTokenTtl() != null || request.getRefreshTokenTtl() != null
+                || StringUtils.hasText(request.getAccessTokenFormat())) {
+            TokenSettings.Builder tokenBuilder = TokenSettings.withSettings(tokenSettings.getSettings());
+            if (request.getAccessTokenTtl() != null) {
+                tokenBuilder.accessTokenTimeToLive(request.getAccessTokenTtl());
+            }
+            if (request.getRefreshTokenTtl() != null) {
+                tokenBuilder.refreshTokenTimeToLive(request.getRefreshTokenTtl());
+            }
+            if (StringUtils.hasText(request.getAccessTokenFormat())) {
+                tokenBuilder.accessTokenFormat(accessTokenFormat(request.getAccessTokenFormat()));
+            }
+            tokenSettings = tokenBuilder.build();
+        }
+        builder.tokenSettings(tokenSettings);
+
+        // build() сам проверяет обязательные поля (например, redirect_uri для authorization_code)
+        return builder.build();
+    }
+
+    private static RegisteredClientResponse toResponse(RegisteredClient client, String plainSecret) {
+        return new RegisteredClientResponse(
+                client.getId(),
+                client.getClientId(),
+                plainSecret,
+                client.getClientName(),
+                client.getClientAuthenticationMethods().stream().map(ClientAuthenticationMethod::getValue).collect(Collectors.toSet()),
+                client.getAuthorizationGrantTypes().stream().map(AuthorizationGrantType::getValue).collect(Collectors.toSet()),
+                Set.copyOf(client.getRedirectUris()),
+                Set.copyOf(client.getScopes()),
+                client.getClientSettings().isRequireAuthorizationConsent(),
+                client.getTokenSettings().getAccessTokenTimeToLive(),
+                client.getTokenSettings().getRefreshTokenTimeToLive(),
+                client.getTokenSettings().getAccessTokenFormat().getValue());
+    }
+
+    private static OAuth2TokenFormat accessTokenFormat(String value) {
+        if (OAuth2TokenFormat.SELF_CONTAINED.getValue().equals(value)) {
+            return OAuth2TokenFormat.SELF_CONTAINED;
+        }
+        if (OAuth2TokenFormat.REFERENCE.getValue().equals(value)) {
+            return OAuth2TokenFormat.REFERENCE;
+        }
+        throw new RuntimeException("Unsupported access token format: " + value);
+    }
+
+    private static String generateSecret() {
+        byte[] bytes = new byte[32];
+        SECURE_RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
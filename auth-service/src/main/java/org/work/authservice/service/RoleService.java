@@ -1,28 +1,104 @@
 package org.work.authservice.service;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.work.authservice.entity.Role;
 import org.work.authservice.repository.RoleRepository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Реестр ролей в памяти: загружается при старте, роли по имени резолвятся без запросов к БД.
+ * Copy-on-write - читатели работают с неизменяемым снимком без блокировок,
+ * недостающие роли создаются одним batch upsert и публикуются новым снимком.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class RoleService {
+
+    private static final String DEFAULT_ROLE = "ROLE_USER";
+
     private final RoleRepository roleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNewTransaction;
+
+    private volatile Map<String, Role> rolesByName = Map.of();
+
+    public RoleService(RoleRepository roleRepository, JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager) {
+        this.roleRepository = roleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRoles() {
+        rolesByName = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+        log.info("Loaded {} roles into registry", rolesByName.size());
+    }
 
     public Set<Role> getUserRoles() {
-        Role userRole = roleRepository.findByName("ROLE_USER")
-                .orElseGet(() -> roleRepository.save(new Role("ROLE_USER")));
-        return Set.of(userRole);
+        return getRolesByNames(Set.of(DEFAULT_ROLE));
     }
 
     public Set<Role> getRolesByNames(Set<String> roleNames) {
-        return roleNames.stream()
-                .map(roleName -> roleRepository.findByName(roleName)
-                        .orElseGet(() -> roleRepository.save(new Role(roleName))))
-                .collect(Collectors.toSet());
+        Map<String, Role> snapshot = rolesByName;
+        Set<Role> roles = new HashSet<>();
+        List<String> missing = new ArrayList<>();
+        for (String roleName : roleNames) {
+            Role role = snapshot.get(roleName);
+            if (role != null) {
+                roles.add(role);
+            } else {
+                missing.add(roleName);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            roles.addAll(createMissingRoles(missing));
+        }
+        return roles;
+    }
+
+    /**
+     * Создает недостающие роли. Вставка идет в отдельной транзакции: если транзакция регистрации
+     * откатится, в реестре не должно остаться ролей, которых нет в БД.
+     * ON CONFLICT делает вставку безопасной при гонке между узлами.
+     */
+    private synchronized List<Role> createMissingRoles(List<String> roleNames) {
+        List<String> stillMissing = roleNames.stream()
+                .filter(roleName -> !rolesByName.containsKey(roleName))
+                .toList();
+
+        if (!stillMissing.isEmpty()) {
+            List<Role> created = requiresNewTransaction.execute(status -> {
+                jdbcTemplate.batchUpdate("INSERT INTO roles (name) VALUES (?) ON CONFLICT (name) DO NOTHING",
+                        stillMissing, stillMissing.size(), (ps, roleName) -> ps.setString(1, roleName));
+                return roleRepository.findByNameIn(stillMissing);
+            });
+
+            Map<String, Role> updated = new HashMap<>(rolesByName);
+            created.forEach(role -> updated.put(role.getName(), role));
+            rolesByName = Map.copyOf(updated);
+            log.info("Created roles {}", stillMissing);
+        }
+
+        Map<String, Role> snapshot = rolesByName;
+        return roleNames.stream().map(snapshot::get).toList();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,334 @@
+package org.work.authservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.work.authservice.dto.UserImportResponse;
+import org.work.authservice.entity.Role;
+import org.work.authservice.repository.UserRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт пользователей из CSV (username,password[,ROLE_A;ROLE_B]) или NDJSON.
+ * Поток читается построчно и обрабатывается пачками: проверка дубликатов одним запросом на пачку,
+ * хеширование паролей параллельно на отдельном пуле, вставка users и user_roles через JDBC batch.
+ */
+@Service
+@Slf4j
+public class UserImportService implements DisposableBean {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    // RETURNING отдает только реально вставленные строки: конфликт определяется по ответу,
+    // а не по счетчикам batch, которые драйвер может вернуть как SUCCESS_NO_INFO
+    private static final String INSERT_USERS_PREFIX = "INSERT INTO users (username, password) VALUES ";
+    private static final String INSERT_USERS_SUFFIX = " ON CONFLICT (username) DO NOTHING RETURNING id, username";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    // Два параметра на строку, у pgjdbc предел 32767 параметров на запрос
+    private static final int ROWS_PER_INSERT = 1000;
+    private static final int MAX_REPORTED_FAILURES = 1000;
+
+    private final ValidationService validationService;
+    private final RoleService roleService;
+    private final UsernameAvailabilityService usernameAvailabilityService;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final PasswordEncoder hashingEncoder;
+    private final ExecutorService hashingPool;
+    private final int batchSize;
+
+    public UserImportService(ValidationService validationService,
+                             RoleService roleService,
+                             UsernameAvailabilityService usernameAvailabilityService,
+                             UserRepository userRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${password.hashing.bcrypt-strength:10}") int strength,
+                             @Value("${user-import.hashing-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int hashingThreads,
+                             @Value("${user-import.batch-size:1000}") int batchSize) {
+        this.validationService = validationService;
+        this.roleService = roleService;
+        this.usernameAvailabilityService = usernameAvailabilityService;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        // Отдельный пул: импорт не должен занимать пул хеширования, через который идут логины
+        this.hashingEncoder = new BCryptPasswordEncoder(strength);
+        this.hashingPool = Executors.newFixedThreadPool(hashingThreads);
+        this.batchSize = batchSize;
+    }
+
+    public UserImportResponse importUsers(InputStream input, Format format) throws IOException {
+        long start = System.nanoTime();
+        UserImportResponse response = new UserImportResponse();
+        Set<String> seenUsernames = new HashSet<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && lineNumber == 1 && isCsvHeader(line)) {
+                    continue;
+                }
+                response.setTotal(response.getTotal() + 1);
+
+                ImportRow row;
+                try {
+                    row = format == Format.CSV ? parseCsv(line, lineNumber) : parseNdjson(line, lineNumber);
+                    validationService.validateUsername(row.username());
+                    validationService.validatePassword(row.password());
+                } catch (RuntimeException e) {
+                    fail(response, lineNumber, null, e.getMessage());
+                    continue;
+                }
+
+                if (!seenUsernames.add(row.username())) {
+                    fail(response, lineNumber, row.username(), "Duplicate username in import");
+                    continue;
+                }
+
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    flush(batch, response);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, response);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        response.setDurationMs(elapsedNanos / 1_000_000);
+        response.setRowsPerSecond(elapsedNanos > 0 ? response.getTotal() * 1_000_000_000.0 / elapsedNanos : 0);
+        log.info("User import finished: total={}, imported={}, failed={}, {} rows/s",
+                response.getTotal(), response.getImported(), response.getFailed(),
+                String.format("%.1f", response.getRowsPerSecond()));
+        return response;
+    }
+
+    private void flush(List<ImportRow> batch, UserImportResponse response) {
+        Set<String> existing = userRepository.findExistingUsernames(
+                batch.stream().map(ImportRow::username).toList());
+
+        List<ImportRow> rows = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            if (existing.contains(row.username())) {
+                fail(response, row.line(), row.username(), "Username is already in use");
+            } else {
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes;
+        try {
+            hashes = hashAll(rows);
+        } catch (RuntimeException e) {
+            rows.forEach(row -> fail(response, row.line(), row.username(), "Password hashing failed"));
+            log.error("Password hashing failed for import batch", e);
+            return;
+        }
+
+        try {
+            // Счетчики ответа обновляем только после коммита пачки
+            List<ImportRow> conflicts = transactionTemplate.execute(status -> insert(rows, hashes));
+            conflicts.forEach(row -> fail(response, row.line(), row.username(), "Username is already in use"));
+            rows.stream()
+                    .filter(row -> !conflicts.contains(row))
+                    .forEach(row -> usernameAvailabilityService.markTaken(row.username()));
+            response.setImported(response.getImported() + rows.size() - conflicts.size());
+        } catch (DataAccessException e) {
+            rows.forEach(row -> fail(response, row.line(), row.username(), "Database error: " + e.getMostSpecificCause().getMessage()));
+            log.error("Import batch insert failed", e);
+        }
+    }
+
+    private List<ImportRow> insert(List<ImportRow> rows, List<String> hashes) {
+        Map<String, Long> insertedIds = new HashMap<>(rows.size() * 2);
+        for (int from = 0; from < rows.size(); from += ROWS_PER_INSERT) {
+            int to = Math.min(from + ROWS_PER_INSERT, rows.size());
+            Object[] args = new Object[(to - from) * 2];
+            for (int i = from; i < to; i++) {
+                args[(i - from) * 2] = rows.get(i).username();
+                args[(i - from) * 2 + 1] = hashes.get(i);
+            }
+            jdbcTemplate.query(insertUsersSql(to - from), rs -> {
+                insertedIds.put(rs.getString("username"), rs.getLong("id"));
+            }, args);
+        }
+
+        List<ImportRow> conflicts = new ArrayList<>();
+        List<Object[]> roleArgs = new ArrayList<>();
+        for (ImportRow row : rows) {
+            Long userId = insertedIds.get(row.username());
+            // Строки нет в RETURNING - конфликт по username: пользователя успели зарегистрировать параллельно.
+            // Роли привязываются только к id, которые вставил этот импорт, а не к чужой учетной записи
+            if (userId == null) {
+                conflicts.add(row);
+                continue;
+            }
+            Set<Role> roles = row.roles().isEmpty()
+                    ? roleService.getUserRoles()
+                    : roleService.getRolesByNames(row.roles());
+            for (Role role : roles) {
+                roleArgs.add(new Object[]{userId, role.getId()});
+            }
+        }
+        if (!roleArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE, roleArgs);
+        }
+        return conflicts;
+    }
+
+    private List<String> hashAll(List<ImportRow> rows) {
+        List<Callable<String>> tasks = rows.stream()
+                .map(row -> (Callable<String>) () -> hashingEncoder.encode(row.password()))
+                .toList();
+        try {
+            List<String> hashes = new ArrayList<>(rows.size());
+            for (Future<String> future : hashingPool.invokeAll(tasks)) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String insertUsersSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_USERS_PREFIX.length() + rows * 8 + INSERT_USERS_SUFFIX.length());
+        sql.append(INSERT_USERS_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+        }
+        return sql.append(INSERT_USERS_SUFFIX).toString();
+    }
+
+    /**
+     * Заголовок - первая строка, у которой первое поле ровно "username";
+     * пользователь с именем вроде "username1" заголовком не считается.
+     */
+    static boolean isCsvHeader(String line) {
+        return splitCsv(line).get(0).trim().equalsIgnoreCase("username");
+    }
+
+    static ImportRow parseCsv(String line, long lineNumber) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 2) {
+            throw new RuntimeException("Expected username,password[,roles]");
+        }
+        Set<String> roles = fields.size() > 2 && !fields.get(2).isBlank()
+                ? Arrays.stream(fields.get(2).split(";"))
+                        .map(String::trim)
+                        .filter(role -> !role.isEmpty())
+                        .collect(Collectors.toCollection(LinkedHashSet::new))
+                : Set.of();
+        return new ImportRow(lineNumber, fields.get(0).trim(), fields.get(1), roles);
+    }
+
+    private ImportRow parseNdjson(String line, long lineNumber) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new RuntimeException("Malformed JSON");
+        }
+        Set<String> roles = new LinkedHashSet<>();
+        node.path("roles").forEach(role -> roles.add(role.asText()));
+        return new ImportRow(lineNumber,
+                node.path("username").asText(null),
+                node.path("password").asText(null),
+                roles);
+    }
+
+    /**
+     * Разбор строки CSV с поддержкой кавычек: пароли могут содержать запятые.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void fail(UserImportResponse response, long line, String username, String error) {
+        response.setFailed(response.getFailed() + 1);
+        if (response.getFailures().size() < MAX_REPORTED_FAILURES) {
+            response.getFailures().add(new UserImportResponse.RowFailure(line, username, error));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.shutdownNow();
+    }
+
+    record ImportRow(long line, String username, String password, Set<String> roles) {
+    }
+}
@@ -1,9 +1,12 @@
 package org.work.authservice.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.work.authservice.cache.UserChangedEvent;
 import org.work.authservice.entity.Role;
 import org.work.authservice.entity.User;
 import org.work.authservice.repository.UserRepository;
@@ -19,6 +22,8 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final RoleService roleService;
     private final ValidationService validationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UsernameAvailabilityService usernameAvailabilityService;
 
     /**
      * Регистрирует нового пользователя с возможностью указания ролей.
@@ -28,7 +33,8 @@ public class UserService {
         validationService.validateUsername(username);
         validationService.validatePassword(rawPassword);
 
-        if (userRepository.findByUsername(username).isPresent()) {
+        // Если фильтр говорит, что имени точно нет, запрос пропускаем - уникальный индекс все равно страхует
+        if (usernameAvailabilityService.mightBeTaken(username) && userRepository.existsByUsername(username)) {
             throw new RuntimeException("Username is already in use");
         }
 
@@ -42,7 +48,16 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(rawPassword));
         user.setRoles(roles);
 
-        return userRepository.save(user);
+        User saved;
+        try {
+            // flush, чтобы нарушение уникального индекса (фильтр устарел, параллельная регистрация)
+            // произошло здесь, а не при коммите, и вернулось как обычная ошибка "имя занято"
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Username is already in use");
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(username, UserChangedEvent.Reason.REGISTERED));
+        return saved;
     }
 
     /**
@@ -0,0 +1,151 @@
+package org.work.authservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.work.authservice.cache.UserChangedEvent;
+import org.work.authservice.cache.UsernameBloomFilter;
+import org.work.authservice.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Быстрая проверка занятости имени пользователя.
+ * Bloom-фильтр строится при старте потоковым чтением таблицы users и пополняется при регистрации;
+ * "имени точно нет" отвечаем без запроса в БД, в остальных случаях проверяем по БД.
+ * Регистрации на других узлах приходят через pub/sub без гарантии доставки, поэтому фильтр
+ * периодически перестраивается из таблицы (username-filter.rebuild-interval).
+ */
+@Service
+@Slf4j
+public class UsernameAvailabilityService implements DisposableBean {
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile UsernameBloomFilter filter;
+    // Фильтр, который сейчас строится: регистрации во время чтения таблицы пишутся и в него
+    private volatile UsernameBloomFilter building;
+
+    // До окончания первой загрузки фильтру верить нельзя
+    private volatile boolean ready;
+
+    public UsernameAvailabilityService(UserRepository userRepository,
+                                       JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${username-filter.expected-insertions:1000000}") long expectedInsertions,
+                                       @Value("${username-filter.fpp:0.01}") double fpp,
+                                       @Value("${username-filter.rebuild-interval:10m}") Duration rebuildInterval) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.rebuildInterval = rebuildInterval;
+        this.filter = new UsernameBloomFilter(expectedInsertions, fpp);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "username-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUsernames() {
+        rebuild();
+        ready = true;
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly,
+                rebuildInterval.toSeconds(), rebuildInterval.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Строит новый фильтр по таблице users и подменяет текущий. Имена, добавленные
+     * до начала чтения, уже закоммичены и попадут в выборку, добавленные во время чтения -
+     * через building; поэтому после подмены фильтр не теряет ни одной регистрации.
+     */
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        UsernameBloomFilter fresh = new UsernameBloomFilter(expectedInsertions, fpp);
+        building = fresh;
+        try {
+            // Внутри транзакции драйвер PostgreSQL отдает строки порциями по fetchSize, а не всю таблицу сразу
+            readOnlyTransaction.executeWithoutResult(status -> {
+                JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+                streaming.setFetchSize(10_000);
+                streaming.query("SELECT username FROM users", rs -> {
+                    fresh.put(rs.getString(1));
+                });
+            });
+            filter = fresh;
+        } finally {
+            building = null;
+        }
+
+        log.info("Username filter loaded: {} usernames, {} KB, {} ms",
+                fresh.insertions(), fresh.sizeInBytes() / 1024, System.currentTimeMillis() - start);
+        if (fresh.insertions() > expectedInsertions) {
+            log.warn("Username filter holds more entries than expected ({}), false positive rate will grow",
+                    expectedInsertions);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Остается прежний фильтр, следующая попытка - через rebuild-interval
+            log.warn("Username filter rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * false - имени точно нет (ответ без БД), true - имя, возможно, занято.
+     */
+    public boolean mightBeTaken(String username) {
+        return !ready || filter.mightContain(username);
+    }
+
+    public boolean isAvailable(String username) {
+        if (!mightBeTaken(username)) {
+            return true;
+        }
+        return !userRepository.existsByUsername(username);
+    }
+
+    public void markTaken(String username) {
+        // building читаем до filter: если новый фильтр уже подменен, filter вернет именно его
+        UsernameBloomFilter next = building;
+        filter.put(username);
+        if (next != null) {
+            next.put(username);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.reason() == UserChangedEvent.Reason.REGISTERED) {
+            markTaken(event.username());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -1,11 +1,19 @@
 package org.work.authservice.service;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.work.authservice.security.BreachedPasswordChecker;
 
 @Service
+@RequiredArgsConstructor
 public class ValidationService {
 
+    // Спецсимволы политики паролей: !@#$%^&*()_+-=[]{};':"\|,.<>/?
+    private static final boolean[] SPECIAL_CHARS = asciiTable("!@#$%^&*()_+-=[]{};':\"\\|,.<>/?");
+
+    private final BreachedPasswordChecker breachedPasswordChecker;
+
     @Value("${password.policy.min-length:8}")
     private int minLength;
 
@@ -26,21 +34,54 @@ public class ValidationService {
             throw new RuntimeException("Password must be at least " + minLength + " characters long");
         }
 
-        if (requireUppercase && !password.matches(".*[A-Z].*")) {
+        // Один проход по строке вместо отдельного regex на каждое правило
+        boolean hasUppercase = false;
+        boolean hasLowercase = false;
+        boolean hasDigit = false;
+        boolean hasSpecial = false;
+        boolean hasLineTerminator = false;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                hasUppercase = true;
+            } else if (c >= 'a' && c <= 'z') {
+                hasLowercase = true;
+            } else if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (c < SPECIAL_CHARS.length && SPECIAL_CHARS[c]) {
+                hasSpecial = true;
+            } else if (isLineTerminator(c)) {
+                hasLineTerminator = true;
+            }
+        }
+        // Как прежние password.matches(".*X.*"): точка не совпадает с концом строки,
+        // поэтому пароль с переводом строки не проходил ни одно включенное правило
+        if (hasLineTerminator) {
+            hasUppercase = false;
+            hasLowercase = false;
+            hasDigit = false;
+            hasSpecial = false;
+        }
+
+        if (requireUppercase && !hasUppercase) {
             throw new RuntimeException("Password must contain at least one uppercase letter");
         }
 
-        if (requireLowercase && !password.matches(".*[a-z].*")) {
+        if (requireLowercase && !hasLowercase) {
             throw new RuntimeException("Password must contain at least one lowercase letter");
         }
 
-        if (requireDigits && !password.matches(".*\\d.*")) {
+        if (requireDigits && !hasDigit) {
             throw new RuntimeException("Password must contain at least one digit");
         }
 
-        if (requireSpecialChars && !password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>\\/?].*")) {
+        if (requireSpecialChars && !hasSpecial) {
             throw new RuntimeException("Password must contain at least one special character");
         }
+
+        if (breachedPasswordChecker.isBreached(password)) {
+            throw new RuntimeException("Password has appeared in a data breach, choose a different one");
+        }
     }
 
     public void validateUsername(String username) {
@@ -48,8 +89,26 @@ public class ValidationService {
             throw new RuntimeException("Username must be at least 3 characters long");
         }
 
-        if (!username.matches("^[a-zA-Z0-9._-]+$")) {
-            throw new RuntimeException("Username can only contain letters, numbers, dots, dashes and underscores");
+        for (int i = 0; i < username.length(); i++) {
+            char c = username.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == '-';
+            if (!allowed) {
+                throw new RuntimeException("Username can only contain letters, numbers, dots, dashes and underscores");
+            }
+        }
+    }
+
+    // Концы строк java.util.regex без флагов UNIX_LINES и DOTALL
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean[] asciiTable(String chars) {
+        boolean[] table = new boolean[128];
+        for (char c : chars.toCharArray()) {
+            table[c] = true;
         }
+        return table;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package org.work.authservice.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.work.authservice.cache.UserIdCache;
+import org.work.authservice.dto.UserResponse;
+import org.work.authservice.entity.User;
+import org.work.authservice.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Стоимость вызова /auth/user/info и /userinfo: прежняя реализация (загрузка пользователя на каждый вызов)
+ * против claims + кэша id. Репозиторий - mock, поэтому время запроса к БД не входит в замер;
+ * разница по БД видна по числу обращений к репозиторию на вызов.
+ * Запуск: mvn test -Dtest=UserInfoBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class UserInfoBenchmarkTests {
+
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 20_000;
+
+    private final Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "benchmark-user", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @Test
+    void customUserInfo() throws Exception {
+        UserRepository before = repository();
+        UserRepository after = repository();
+
+        assertThat(run("/auth/user/info before", MockMvcBuilders.standaloneSetup(new LegacyUserController(before)).build(), before, "/auth/user/info"))
+                .isEqualTo(1.0);
+        // id берется из кэша, прогретого на первом вызове
+        assertThat(run("/auth/user/info after", MockMvcBuilders.standaloneSetup(new UserController(userIdCache(after))).build(), after, "/auth/user/info"))
+                .isZero();
+    }
+
+    @Test
+    void userInfo() throws Exception {
+        UserRepository before = repository();
+        UserRepository after = repository();
+
+        assertThat(run("/userinfo before", MockMvcBuilders.standaloneSetup(new LegacyUserController(before)).build(), before, "/userinfo"))
+                .isEqualTo(1.0);
+        // Ответ собирается из claims токена, БД не нужна
+        assertThat(run("/userinfo after", MockMvcBuilders.standaloneSetup(new UserController(userIdCache(after))).build(), after, "/userinfo"))
+                .isZero();
+    }
+
+    /**
+     * @return среднее число обращений к репозиторию на вызов после прогрева
+     */
+    private double run(String name, MockMvc mockMvc, UserRepository repository, String path) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            mockMvc.perform(get(path).principal(authentication)).andExpect(status().isOk());
+        }
+        Mockito.clearInvocations(repository);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mockMvc.perform(get(path).principal(authentication));
+        }
+        long nanosPerCall = (System.nanoTime() - start) / ITERATIONS;
+        double queriesPerCall = (double) Mockito.mockingDetails(repository).getInvocations().size() / ITERATIONS;
+
+        log.info("{}: {} us/call, {} repository calls/call",
+                name, nanosPerCall / 1_000, String.format("%.3f", queriesPerCall));
+        return queriesPerCall;
+    }
+
+    private static UserIdCache userIdCache(UserRepository repository) {
+        return new UserIdCache(repository, new SimpleMeterRegistry(), 1000, Duration.ofHours(1));
+    }
+
+    private static UserRepository repository() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark-user");
+        user.setPassword("{noop}password");
+        user.setRoles(Set.of());
+
+        UserRepository repository = mock(UserRepository.class);
+        when(repository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        when(repository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        return repository;
+    }
+
+    /**
+     * Прежняя реализация: пользователь из БД на каждый вызов.
+     */
+    @RestController
+    static class LegacyUserController {
+
+        private final UserRepository userRepository;
+
+        LegacyUserController(UserRepository userRepository) {
+            this.userRepository = userRepository;
+        }
+
+        @GetMapping("/userinfo")
+        public ResponseEntity<Map<String, Object>> getUserInfo(Authentication authentication) {
+            User user = userRepository.findByUsername(authentication.getName()).orElseThrow();
+            return ResponseEntity.ok(Map.of(
+                    "sub", user.getUsername(),
+                    "preferred_username", user.getUsername(),
+                    "roles", authentication.getAuthorities().stream().map(Object::toString).toList()));
+        }
+
+        @GetMapping("/auth/user/info")
+        public ResponseEntity<UserResponse> getCustomUserInfo(Authentication authentication) {
+            User user = userRepository.findByUsername(authentication.getName()).orElseThrow();
+            return ResponseEntity.ok(new UserResponse(user.getId(), user.getUsername(),
+                    authentication.getAuthorities().stream().map(Object::toString).toList()));
+        }
+    }
+}
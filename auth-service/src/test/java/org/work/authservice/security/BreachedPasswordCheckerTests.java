@@ -0,0 +1,165 @@
+package org.work.authservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Файл собирается в тесте: отсортированные SHA-1 хеши паролей плюс искусственные записи
+ * по краям и с общим с искомым хешем префиксом, чтобы проверить границы поиска
+ * и побайтное сравнение хвоста после первых 8 байт.
+ */
+class BreachedPasswordCheckerTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsHashesAtBothEndsAndInside() throws Exception {
+        List<byte[]> records = new ArrayList<>();
+        for (String password : List.of("password", "123456", "qwerty", "letmein", "dragon")) {
+            records.add(sha1(password));
+        }
+        BreachedPasswordChecker checker = checker(records, 20);
+
+        // Первая и последняя запись файла - самые маленький и большой хеши из списка
+        records.sort(Arrays::compareUnsigned);
+        assertThat(checker.isBreached(passwordFor(records.get(0)))).isTrue();
+        assertThat(checker.isBreached(passwordFor(records.get(records.size() - 1)))).isTrue();
+        assertThat(checker.isBreached("qwerty")).isTrue();
+
+        assertThat(checker.isBreached("correct horse battery staple")).isFalse();
+        assertThat(checker.isBreached("")).isFalse();
+    }
+
+    @Test
+    void extremeRecordsAreFound() throws Exception {
+        byte[] lowest = new byte[20];
+        byte[] highest = new byte[20];
+        Arrays.fill(highest, (byte) 0xff);
+        byte[] target = sha1("password");
+        BreachedPasswordChecker checker = checker(List.of(lowest, target, highest), 20);
+
+        assertThat(checker.isBreached("password")).isTrue();
+        assertThat(checker.isBreached("other")).isFalse();
+    }
+
+    @Test
+    void hashesWithHighBitAreComparedUnsigned() throws Exception {
+        // Пароли, у которых первый байт хеша >= 0x80 и < 0x80, в одном файле
+        List<byte[]> records = new ArrayList<>();
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; passwords.size() < 20; i++) {
+            String password = "password" + i;
+            records.add(sha1(password));
+            passwords.add(password);
+        }
+        assertThat(records).anyMatch(hash -> (hash[0] & 0x80) != 0).anyMatch(hash -> (hash[0] & 0x80) == 0);
+        BreachedPasswordChecker checker = checker(records, 20);
+
+        for (String password : passwords) {
+            assertThat(checker.isBreached(password)).as(password).isTrue();
+        }
+    }
+
+    @Test
+    void recordsSharingPrefixAreComparedToTheEnd() throws Exception {
+        byte[] target = sha1("password");
+        // Совпадают первые 8 байт (один long), отличаются хвостом - в обе стороны
+        byte[] below = target.clone();
+        below[19]--;
+        byte[] above = target.clone();
+        above[8]++;
+        byte[] alsoAbove = target.clone();
+        alsoAbove[19]++;
+
+        BreachedPasswordChecker withoutTarget = checker(List.of(below, above, alsoAbove), 20);
+        assertThat(withoutTarget.isBreached("password")).isFalse();
+
+        BreachedPasswordChecker withTarget = checker(List.of(below, target, above, alsoAbove), 20);
+        assertThat(withTarget.isBreached("password")).isTrue();
+    }
+
+    @Test
+    void shortRecordsMatchByPrefix() throws Exception {
+        byte[] target = sha1("password");
+        BreachedPasswordChecker checker = checker(List.of(Arrays.copyOf(target, 10), Arrays.copyOf(sha1("qwerty"), 10)), 10);
+
+        assertThat(checker.isBreached("password")).isTrue();
+        assertThat(checker.isBreached("qwerty")).isTrue();
+        assertThat(checker.isBreached("123456")).isFalse();
+    }
+
+    @Test
+    void emptyFileFindsNothing() throws Exception {
+        BreachedPasswordChecker checker = checker(List.of(), 20);
+
+        assertThat(checker.isEnabled()).isTrue();
+        assertThat(checker.isBreached("password")).isFalse();
+    }
+
+    @Test
+    void missingFileDisablesCheck() {
+        BreachedPasswordChecker checker = new BreachedPasswordChecker();
+        ReflectionTestUtils.setField(checker, "breachedFile", dir.resolve("missing.bin").toString());
+        ReflectionTestUtils.setField(checker, "recordBytes", 20);
+        checker.open();
+
+        assertThat(checker.isEnabled()).isFalse();
+        assertThat(checker.isBreached("password")).isFalse();
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws Exception {
+        Path file = dir.resolve("truncated.bin");
+        Files.write(file, Arrays.copyOf(sha1("password"), 19));
+        BreachedPasswordChecker checker = new BreachedPasswordChecker();
+        ReflectionTestUtils.setField(checker, "breachedFile", file.toString());
+        ReflectionTestUtils.setField(checker, "recordBytes", 20);
+
+        assertThatThrownBy(checker::open).isInstanceOf(IllegalStateException.class);
+    }
+
+    private BreachedPasswordChecker checker(List<byte[]> records, int recordBytes) throws Exception {
+        List<byte[]> sorted = new ArrayList<>(records);
+        sorted.sort(Arrays::compareUnsigned);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] record : sorted) {
+            content.write(record, 0, recordBytes);
+        }
+        Path file = Files.createTempFile(dir, "breached", ".bin");
+        Files.write(file, content.toByteArray());
+
+        BreachedPasswordChecker checker = new BreachedPasswordChecker();
+        ReflectionTestUtils.setField(checker, "breachedFile", file.toString());
+        ReflectionTestUtils.setField(checker, "recordBytes", recordBytes);
+        checker.open();
+        return checker;
+    }
+
+    // Обратно хеш не развернуть - ищем среди паролей, из которых собран файл
+    private static String passwordFor(byte[] hash) throws Exception {
+        for (String password : List.of("password", "123456", "qwerty", "letmein", "dragon")) {
+            if (Arrays.equals(sha1(password), hash)) {
+                return password;
+            }
+        }
+        throw new IllegalArgumentException("Unknown hash");
+    }
+
+    private static byte[] sha1(String password) throws Exception {
+        return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+}
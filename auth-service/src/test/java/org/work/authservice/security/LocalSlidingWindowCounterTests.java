@@ -0,0 +1,100 @@
+package org.work.authservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Время передается явно, поэтому окна переключаются без ожидания: окно - 1000 мс.
+ */
+class LocalSlidingWindowCounterTests {
+
+    private static final long WINDOW = 1_000;
+    // Не с нуля, чтобы номер окна занимал старшие 32 бита, как в реальной работе
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final LocalSlidingWindowCounter counter = new LocalSlidingWindowCounter(WINDOW, 100);
+
+    @Test
+    void countsWithinCurrentWindow() {
+        increment("alice", T0 + 100, 3);
+
+        assertThat(counter.estimate("alice", T0 + 900)).isEqualTo(3.0);
+        assertThat(counter.estimate("bob", T0 + 900)).isZero();
+    }
+
+    @Test
+    void previousWindowIsWeightedByRemainingShare() {
+        increment("alice", T0 + 100, 4);
+        increment("alice", T0 + WINDOW + 250, 1);
+
+        // 4 * 0.75 + 1
+        assertThat(counter.estimate("alice", T0 + WINDOW + 250)).isCloseTo(4.0, within(1e-9));
+        // 4 * 0.5 + 1
+        assertThat(counter.estimate("alice", T0 + WINDOW + 500)).isCloseTo(3.0, within(1e-9));
+    }
+
+    @Test
+    void estimateRollsWithoutIncrement() {
+        increment("alice", T0 + 100, 4);
+
+        // Чтение не меняет состояние, но учитывает, что окно уже сменилось
+        assertThat(counter.estimate("alice", T0 + WINDOW + 500)).isCloseTo(2.0, within(1e-9));
+        assertThat(counter.estimate("alice", T0 + 100)).isEqualTo(4.0);
+    }
+
+    @Test
+    void countsOlderThanPreviousWindowAreDropped() {
+        increment("alice", T0 + 100, 5);
+
+        assertThat(counter.estimate("alice", T0 + 2 * WINDOW + 100)).isZero();
+        increment("alice", T0 + 2 * WINDOW + 100, 1);
+        assertThat(counter.estimate("alice", T0 + 2 * WINDOW + 100)).isEqualTo(1.0);
+    }
+
+    @Test
+    void counterSaturatesAtSixteenBits() {
+        increment("alice", T0, 0xFFFF + 10);
+
+        assertThat(counter.estimate("alice", T0)).isEqualTo(0xFFFF);
+        // Переполнение не должно перетекать в счетчик предыдущего окна
+        increment("alice", T0 + WINDOW, 1);
+        assertThat(counter.estimate("alice", T0 + WINDOW)).isEqualTo(0xFFFF + 1.0);
+    }
+
+    @Test
+    void newKeysAreIgnoredAboveMaxKeys() {
+        LocalSlidingWindowCounter small = new LocalSlidingWindowCounter(WINDOW, 2);
+        small.increment("a", T0);
+        small.increment("b", T0);
+        small.increment("c", T0);
+        small.increment("a", T0);
+
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.estimate("c", T0)).isZero();
+        assertThat(small.estimate("a", T0)).isEqualTo(2.0);
+
+        small.reset("b");
+        small.increment("c", T0);
+        assertThat(small.estimate("c", T0)).isEqualTo(1.0);
+    }
+
+    @Test
+    void evictsKeysWhosePreviousWindowHasPassed() {
+        counter.increment("old", T0 + 100);
+        counter.increment("recent", T0 + WINDOW + 100);
+
+        counter.evictExpired(T0 + 2 * WINDOW + 100);
+
+        assertThat(counter.size()).isEqualTo(1);
+        assertThat(counter.estimate("old", T0 + 2 * WINDOW + 100)).isZero();
+        assertThat(counter.estimate("recent", T0 + 2 * WINDOW + 100)).isCloseTo(0.9, within(1e-9));
+    }
+
+    private void increment(String key, long nowMillis, int times) {
+        for (int i = 0; i < times; i++) {
+            counter.increment(key, nowMillis);
+        }
+    }
+}
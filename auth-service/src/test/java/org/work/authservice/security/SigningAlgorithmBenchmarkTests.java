@@ -0,0 +1,96 @@
+package org.work.authservice.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение стоимости подписи и проверки JWT для RS256 и ES256.
+ * Запуск: mvn test -Dtest=SigningAlgorithmBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class SigningAlgorithmBenchmarkTests {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    private final JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer("http://localhost:8081/auth")
+            .subject("benchmark-user")
+            .audience("web-client")
+            .claim("scope", List.of("openid", "profile", "read", "write"))
+            .claim("roles", List.of("ROLE_USER"))
+            .issueTime(Date.from(Instant.now()))
+            .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+            .build();
+
+    @Test
+    void rs256() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("rs").generate();
+        run(JWSAlgorithm.RS256, new RSASSASigner(key), new RSASSAVerifier(key.toRSAPublicKey()), 256);
+    }
+
+    @Test
+    void es256() throws Exception {
+        ECKey key = new ECKeyGenerator(Curve.P_256).keyID("es").generate();
+        run(JWSAlgorithm.ES256, new ECDSASigner(key), new ECDSAVerifier(key.toECPublicKey()), 64);
+    }
+
+    private void run(JWSAlgorithm algorithm, JWSSigner signer, JWSVerifier verifier, int signatureBytes) throws Exception {
+        JWSHeader header = new JWSHeader(algorithm);
+        String token = null;
+
+        for (int i = 0; i < WARMUP; i++) {
+            token = sign(header, signer);
+            SignedJWT.parse(token).verify(verifier);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            token = sign(header, signer);
+        }
+        long signNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        boolean valid = true;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            valid &= SignedJWT.parse(token).verify(verifier);
+        }
+        long verifyNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        assertTrue(valid);
+        // Размер подписи и определяет разницу в длине токена: 256 байт у RS256 против 64 у ES256
+        assertEquals(signatureBytes, SignedJWT.parse(token).getSignature().decode().length);
+        log.info("{}: sign {} us/op, verify {} us/op, token {} bytes",
+                algorithm, signNanos / 1_000, verifyNanos / 1_000, token.length());
+    }
+
+    private String sign(JWSHeader header, JWSSigner signer) throws Exception {
+        SignedJWT jwt = new SignedJWT(header, claims);
+        jwt.sign(signer);
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,89 @@
+package org.work.authservice.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SigningKeyManagerTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keysAreEncryptedAndSurviveRestart() throws Exception {
+        Path keysFile = dir.resolve("signing-keys.json");
+
+        String keyId;
+        SigningKeyManager first = manager(keysFile, "secret");
+        try {
+            keyId = first.activeKeyId();
+        } finally {
+            first.destroy();
+        }
+
+        String content = Files.readString(keysFile);
+        assertThat(content).doesNotStartWith("{").doesNotContain(keyId);
+
+        SigningKeyManager second = manager(keysFile, "secret");
+        try {
+            assertThat(second.activeKeyId()).isEqualTo(keyId);
+        } finally {
+            second.destroy();
+        }
+    }
+
+    @Test
+    void keysFileIsOwnerOnly() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path keysFile = dir.resolve("signing-keys.json");
+
+        manager(keysFile, "secret").destroy();
+
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(keysFile))).isEqualTo("rw-------");
+    }
+
+    @Test
+    void wrongPasswordFailsStartup() throws Exception {
+        Path keysFile = dir.resolve("signing-keys.json");
+        manager(keysFile, "secret").destroy();
+
+        assertThatThrownBy(() -> manager(keysFile, "other")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> manager(keysFile, null)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void plaintextFileIsEncryptedOnceAPasswordIsSet() throws Exception {
+        Path keysFile = dir.resolve("signing-keys.json");
+        // Ключ, выпущенный заранее, чтобы он уже был активен
+        JWKSet plain = new JWKSet(new RSAKeyGenerator(2048)
+                .algorithm(JWSAlgorithm.RS256).keyID("legacy").issueTime(new Date(0))
+                .generate());
+        Files.writeString(keysFile, plain.toString(false));
+
+        SigningKeyManager manager = manager(keysFile, "secret");
+        try {
+            assertThat(manager.activeKeyId()).isEqualTo("legacy");
+        } finally {
+            manager.destroy();
+        }
+        assertThat(Files.readString(keysFile)).doesNotStartWith("{");
+    }
+
+    private static SigningKeyManager manager(Path keysFile, String password) {
+        return new SigningKeyManager(keysFile, password, JWSAlgorithm.RS256,
+                Duration.ofDays(30), Duration.ofHours(1), Duration.ofHours(2), true);
+    }
+}
@@ -0,0 +1,212 @@
+package org.work.authservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.work.authservice.dto.UserImportResponse;
+import org.work.authservice.entity.Role;
+import org.work.authservice.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Разбор CSV/NDJSON и обработка конфликтов импорта. БД заменена RecordingJdbcTemplate:
+ * INSERT ... RETURNING возвращает все имена, кроме "зарегистрированных параллельно".
+ */
+class UserImportServiceTests {
+
+    private static final Role ROLE_USER = new Role(1L, "ROLE_USER");
+    private static final Role ROLE_ADMIN = new Role(2L, "ROLE_ADMIN");
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleService roleService = mock(RoleService.class);
+    private final UsernameAvailabilityService usernameAvailabilityService = mock(UsernameAvailabilityService.class);
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findExistingUsernames(any())).thenReturn(Set.of());
+        when(roleService.getUserRoles()).thenReturn(Set.of(ROLE_USER));
+        when(roleService.getRolesByNames(any())).thenReturn(Set.of(ROLE_ADMIN));
+        importService = new UserImportService(mock(ValidationService.class), roleService, usernameAvailabilityService,
+                userRepository, jdbcTemplate, mock(PlatformTransactionManager.class), new ObjectMapper(),
+                4, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.destroy();
+    }
+
+    @Test
+    void splitCsvHandlesQuotedCommasAndEscapedQuotes() {
+        assertThat(UserImportService.splitCsv("alice,\"pa,ss\"\"word\",ROLE_USER"))
+                .containsExactly("alice", "pa,ss\"word", "ROLE_USER");
+        assertThat(UserImportService.splitCsv("bob,,")).containsExactly("bob", "", "");
+    }
+
+    @Test
+    void parseCsvSplitsAndTrimsRoles() {
+        UserImportService.ImportRow row = UserImportService.parseCsv(" carol ,Secret1!, ROLE_A ;;ROLE_B", 7);
+
+        assertThat(row.line()).isEqualTo(7);
+        assertThat(row.username()).isEqualTo("carol");
+        assertThat(row.password()).isEqualTo("Secret1!");
+        assertThat(row.roles()).containsExactly("ROLE_A", "ROLE_B");
+        assertThat(UserImportService.parseCsv("dave,Secret1!", 1).roles()).isEmpty();
+    }
+
+    @Test
+    void headerIsOnlyAnExactUsernameColumn() {
+        assertThat(UserImportService.isCsvHeader("username,password,roles")).isTrue();
+        assertThat(UserImportService.isCsvHeader(" Username , Password")).isTrue();
+        assertThat(UserImportService.isCsvHeader("username1,Secret1!")).isFalse();
+    }
+
+    @Test
+    void csvImportSkipsHeaderAndReportsMalformedRows() throws IOException {
+        UserImportResponse response = importCsv("""
+                username,password,roles
+                username1,Secret1!
+                broken-row
+                erin,Secret1!,ROLE_ADMIN
+                """);
+
+        assertThat(response.getTotal()).isEqualTo(3);
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailures()).extracting(UserImportResponse.RowFailure::getLine).containsExactly(3L);
+        assertThat(jdbcTemplate.insertedIds).containsOnlyKeys("username1", "erin");
+    }
+
+    @Test
+    void ndjsonImportReadsRoles() throws IOException {
+        UserImportResponse response = importService.importUsers(stream("""
+                {"username":"frank","password":"Secret1!","roles":["ROLE_ADMIN"]}
+                {not json}
+                """), UserImportService.Format.NDJSON);
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getFailures()).extracting(UserImportResponse.RowFailure::getError)
+                .containsExactly("Malformed JSON");
+        assertThat(jdbcTemplate.userRoles).containsExactly(List.of(jdbcTemplate.insertedIds.get("frank"), 2L));
+    }
+
+    @Test
+    void duplicateUsernamesInImportAreRejected() throws IOException {
+        UserImportResponse response = importCsv("""
+                grace,Secret1!
+                grace,Other1!
+                """);
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getFailures()).extracting(UserImportResponse.RowFailure::getError)
+                .containsExactly("Duplicate username in import");
+    }
+
+    @Test
+    void existingUsernamesAreNotInserted() throws IOException {
+        when(userRepository.findExistingUsernames(any())).thenReturn(Set.of("heidi"));
+
+        UserImportResponse response = importCsv("""
+                heidi,Secret1!
+                ivan,Secret1!
+                """);
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getFailures()).extracting(UserImportResponse.RowFailure::getUsername)
+                .containsExactly("heidi");
+        assertThat(jdbcTemplate.insertedIds).containsOnlyKeys("ivan");
+    }
+
+    @Test
+    void concurrentlyRegisteredUsernameGetsNoRoles() throws IOException {
+        // Имя прошло проверку дубликатов, но к моменту INSERT его успели зарегистрировать
+        jdbcTemplate.concurrentlyRegistered.add("mallory");
+
+        UserImportResponse response = importCsv("""
+                judy,Secret1!
+                mallory,Secret1!,ROLE_ADMIN
+                """);
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getFailures())
+                .extracting(UserImportResponse.RowFailure::getUsername, UserImportResponse.RowFailure::getError)
+                .containsExactly(tuple("mallory", "Username is already in use"));
+        // Роли привязаны только к id, возвращенному INSERT ... RETURNING
+        assertThat(jdbcTemplate.userRoles).containsExactly(List.of(jdbcTemplate.insertedIds.get("judy"), 1L));
+        verify(usernameAvailabilityService).markTaken("judy");
+        verify(usernameAvailabilityService, never()).markTaken("mallory");
+        verify(roleService, never()).getRolesByNames(any());
+    }
+
+    private UserImportResponse importCsv(String csv) throws IOException {
+        return importService.importUsers(stream(csv), UserImportService.Format.CSV);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Вместо PostgreSQL: INSERT ... RETURNING отдает строки для всех имен, кроме concurrentlyRegistered,
+     * вставки user_roles запоминаются как (user_id, role_id).
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        final Set<String> concurrentlyRegistered = new HashSet<>();
+        final Map<String, Long> insertedIds = new LinkedHashMap<>();
+        final List<List<Object>> userRoles = new ArrayList<>();
+        private long nextId = 100;
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            assertThat(sql).startsWith("INSERT INTO users").endsWith("RETURNING id, username");
+            try {
+                for (int i = 0; i < args.length; i += 2) {
+                    String username = (String) args[i];
+                    if (concurrentlyRegistered.contains(username)) {
+                        continue;
+                    }
+                    long id = nextId++;
+                    insertedIds.put(username, id);
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getString("username")).thenReturn(username);
+                    when(rs.getLong("id")).thenReturn(id);
+                    rch.processRow(rs);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            assertThat(sql).startsWith("INSERT INTO user_roles");
+            batchArgs.forEach(args -> userRoles.add(List.of(args)));
+            return new int[batchArgs.size()];
+        }
+    }
+}
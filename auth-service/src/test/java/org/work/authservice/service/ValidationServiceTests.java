@@ -0,0 +1,131 @@
+package org.work.authservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.work.authservice.security.BreachedPasswordChecker;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Однопроходная проверка против прежних regex-правил: на одних и тех же входах
+ * должна падать с тем же сообщением или так же проходить.
+ */
+class ValidationServiceTests {
+
+    private static final List<String> PASSWORDS = List.of(
+            "", "Aa1!", "Aa1!aaaa", "aaaaaaa1!", "AAAAAAA1!", "Aaaaaaaa!", "Aaaaaaa1",
+            "Aa1aaaa~", "Aa1aaaa ", "Aa1aaaa\\", "Aa1aaaa/", "Aa1aaaa\"", "Aa1aaaa'",
+            "Aa1aaaa[", "Aa1aaaa]", "Aa1aaaa-", "Aa1aaaa`",
+            // Не ASCII: кириллица и цифры других алфавитов не считаются буквами и цифрами
+            "Пароль1!a", "Ab!aaaaa١", "ÀbcdefG1!",
+            // Концы строк: ".*X.*" через них не проходит
+            "Aa1!aaaa\n", "\nAa1!aaaa", "Aa1!\raaa", "Aa1!aaa ", "Aa1!aaa\u0085", "Aa1!aaa\t");
+
+    private static final List<String> USERNAMES = List.of(
+            "", "ab", "abc", "a.b_c-d", "user name", "user\n", "\nuser", "юзер", "user@host", "USER_01");
+
+    private final BreachedPasswordChecker breachedPasswordChecker = mock(BreachedPasswordChecker.class);
+    private final ValidationService validationService = new ValidationService(breachedPasswordChecker);
+
+    @BeforeEach
+    void setUp() {
+        configure(true, true, true, true);
+    }
+
+    @Test
+    void passwordRulesMatchRegexRules() {
+        boolean[][] configurations = {
+                {true, true, true, true},
+                {true, false, false, false},
+                {false, true, false, false},
+                {false, false, true, false},
+                {false, false, false, true},
+                {false, false, false, false}
+        };
+        for (boolean[] rules : configurations) {
+            configure(rules[0], rules[1], rules[2], rules[3]);
+            for (String password : PASSWORDS) {
+                assertThat(error(() -> validationService.validatePassword(password)))
+                        .as("password %s, rules %s %s %s %s", escape(password), rules[0], rules[1], rules[2], rules[3])
+                        .isEqualTo(error(() -> validatePasswordWithRegex(password, rules)));
+            }
+        }
+    }
+
+    @Test
+    void usernameRulesMatchRegexRule() {
+        for (String username : USERNAMES) {
+            assertThat(error(() -> validationService.validateUsername(username)))
+                    .as("username %s", escape(username))
+                    .isEqualTo(error(() -> validateUsernameWithRegex(username)));
+        }
+    }
+
+    @Test
+    void breachedPasswordIsRejectedAfterPolicyRules() {
+        when(breachedPasswordChecker.isBreached("Password1!")).thenReturn(true);
+
+        assertThatThrownBy(() -> validationService.validatePassword("Password1!"))
+                .hasMessageContaining("data breach");
+        validationService.validatePassword("Password2!");
+    }
+
+    private void configure(boolean uppercase, boolean lowercase, boolean digits, boolean specialChars) {
+        ReflectionTestUtils.setField(validationService, "minLength", 8);
+        ReflectionTestUtils.setField(validationService, "requireUppercase", uppercase);
+        ReflectionTestUtils.setField(validationService, "requireLowercase", lowercase);
+        ReflectionTestUtils.setField(validationService, "requireDigits", digits);
+        ReflectionTestUtils.setField(validationService, "requireSpecialChars", specialChars);
+    }
+
+    // Правила до однопроходной реализации
+    private static void validatePasswordWithRegex(String password, boolean[] rules) {
+        if (password == null || password.length() < 8) {
+            throw new RuntimeException("Password must be at least 8 characters long");
+        }
+        if (rules[0] && !password.matches(".*[A-Z].*")) {
+            throw new RuntimeException("Password must contain at least one uppercase letter");
+        }
+        if (rules[1] && !password.matches(".*[a-z].*")) {
+            throw new RuntimeException("Password must contain at least one lowercase letter");
+        }
+        if (rules[2] && !password.matches(".*\\d.*")) {
+            throw new RuntimeException("Password must contain at least one digit");
+        }
+        if (rules[3] && !password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>\\/?].*")) {
+            throw new RuntimeException("Password must contain at least one special character");
+        }
+    }
+
+    private static void validateUsernameWithRegex(String username) {
+        if (username == null || username.length() < 3) {
+            throw new RuntimeException("Username must be at least 3 characters long");
+        }
+        if (!username.matches("^[a-zA-Z0-9._-]+$")) {
+            throw new RuntimeException("Username can only contain letters, numbers, dots, dashes and underscores");
+        }
+    }
+
+    private static String error(Runnable validation) {
+        try {
+            validation.run();
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String escape(String value) {
+        StringBuilder result = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            result.append(c < 0x20 || c > 0x7e ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+        }
+        return result.toString();
+    }
+}
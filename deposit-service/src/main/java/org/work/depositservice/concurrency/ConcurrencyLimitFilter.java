@@ -0,0 +1,63 @@
+package org.work.depositservice.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Сбрасывает нагрузку сверх адаптивного лимита сразу с 503, до аутентификации и обращения к БД.
+ * Изменяющие запросы имеют приоритет: чтение отсекается на меньшем пороге.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final GradientConcurrencyLimiter limiter;
+    private final Counter rejectedWrites;
+    private final Counter rejectedReads;
+
+    public ConcurrencyLimitFilter(GradientConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.rejectedWrites = Counter.builder("deposit.concurrency.rejected")
+                .tag("priority", "write")
+                .description("Запросы, отброшенные адаптивным лимитом")
+                .register(meterRegistry);
+        this.rejectedReads = Counter.builder("deposit.concurrency.rejected")
+                .tag("priority", "read")
+                .description("Запросы, отброшенные адаптивным лимитом")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+
+        int inFlight = limiter.tryAcquire(write);
+        if (inFlight < 0) {
+            (write ? rejectedWrites : rejectedReads).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Service overloaded\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, inFlight, dropped);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.work.depositservice.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 20;
+    private int minLimit = 5;
+    private int maxLimit = 200;
+    // Насколько текущая задержка может превышать базовую, прежде чем лимит начнет снижаться
+    private double rttTolerance = 1.5;
+    // Вес нового значения лимита при сглаживании
+    private double smoothing = 0.2;
+    // Окно (в замерах) для экспоненциального среднего "базовой" задержки
+    private int longWindow = 600;
+    // Множитель лимита при ошибке/таймауте
+    private double backoffRatio = 0.9;
+    // Доля лимита, зарезервированная под запись: чтение отсекается раньше
+    private double writeReserve = 0.2;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public double getWriteReserve() {
+        return writeReserve;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public void setWriteReserve(double writeReserve) {
+        this.writeReserve = writeReserve;
+    }
+}
@@ -0,0 +1,98 @@
+package org.work.depositservice.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивный лимит одновременных запросов по градиенту задержки (в духе Netflix Gradient2).
+ * Пока текущая задержка близка к базовой, лимит растет на sqrt(limit);
+ * когда запросы начинают стоять в очередях и задержка растет, лимит сжимается пропорционально.
+ * Захват слота - CAS по счетчику, пересчет лимита делает тот поток, которому удался tryLock,
+ * остальные замеры в этот момент просто пропускаются.
+ */
+public class GradientConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile int writeLimit;
+    private volatile int readLimit;
+
+    // Под updateLock
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public GradientConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.estimatedLimit = properties.getInitialLimit();
+        publish(estimatedLimit);
+    }
+
+    /**
+     * @return количество запросов в работе с учетом текущего, или -1, если запрос нужно отбросить
+     */
+    public int tryAcquire(boolean write) {
+        int allowed = write ? writeLimit : readLimit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            if (dropped) {
+                update(estimatedLimit * properties.getBackoffRatio());
+                return;
+            }
+            // Сервис недогружен - замер ничего не говорит о пределе
+            if (inFlightAtStart < estimatedLimit / 2) {
+                return;
+            }
+
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+            } else {
+                longRttNanos += (rttNanos - longRttNanos) / properties.getLongWindow();
+            }
+            // Базовая задержка "застряла" высоко после перегрузки - быстрее сводим ее вниз
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRttNanos / rttNanos));
+            double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            update(estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing());
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return writeLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(double newLimit) {
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+        publish(estimatedLimit);
+    }
+
+    private void publish(double limit) {
+        writeLimit = (int) limit;
+        readLimit = Math.max(1, (int) (limit * (1 - properties.getWriteReserve())));
+    }
+}
@@ -0,0 +1,43 @@
+package org.work.depositservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.work.depositservice.concurrency.ConcurrencyLimitFilter;
+import org.work.depositservice.concurrency.ConcurrencyLimitProperties;
+import org.work.depositservice.concurrency.GradientConcurrencyLimiter;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public GradientConcurrencyLimiter gradientConcurrencyLimiter(ConcurrencyLimitProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(properties);
+        Gauge.builder("deposit.concurrency.limit", limiter, GradientConcurrencyLimiter::getLimit)
+                .description("Текущий адаптивный лимит одновременных запросов")
+                .register(meterRegistry);
+        Gauge.builder("deposit.concurrency.inflight", limiter, GradientConcurrencyLimiter::getInFlight)
+                .description("Запросы в работе")
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(GradientConcurrencyLimiter limiter,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limiter, meterRegistry));
+        // До springSecurityFilterChain: лишнюю нагрузку отбрасываем, не тратя время на проверку JWT
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package org.work.depositservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.security.oauth2.server.resource.introspection.SpringOpaqueTokenIntrospector;
+import org.springframework.web.client.RestTemplate;
+import org.work.depositservice.introspection.CachingOpaqueTokenIntrospector;
+import org.work.depositservice.introspection.IntrospectionProperties;
+
+@Configuration
+@EnableConfigurationProperties(IntrospectionProperties.class)
+@ConditionalOnProperty(prefix = "introspection", name = "enabled", havingValue = "true")
+public class IntrospectionConfig {
+
+    @Bean
+    public CachingOpaqueTokenIntrospector opaqueTokenIntrospector(IntrospectionProperties properties,
+                                                                  MeterRegistry meterRegistry) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getConnectTimeout());
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(
+                new BasicAuthenticationInterceptor(properties.getClientId(), properties.getClientSecret()));
+
+        return new CachingOpaqueTokenIntrospector(
+                new SpringOpaqueTokenIntrospector(properties.getUri(), restTemplate), properties, meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package org.work.depositservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.work.depositservice.ratelimit.LocalRateLimiter;
+import org.work.depositservice.ratelimit.RateLimitFilter;
+import org.work.depositservice.ratelimit.RateLimitProperties;
+import org.work.depositservice.ratelimit.RateLimiter;
+import org.work.depositservice.ratelimit.RedisRateLimiter;
+import org.work.depositservice.service.SecurityContextService;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public LocalRateLimiter localRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        LocalRateLimiter limiter = new LocalRateLimiter(properties);
+        Gauge.builder("deposit.ratelimit.buckets", limiter, LocalRateLimiter::size)
+                .description("Количество корзин лимитера в памяти")
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties,
+                                                                   LocalRateLimiter localRateLimiter,
+                                                                   StringRedisTemplate redisTemplate,
+                                                                   SecurityContextService securityContextService,
+                                                                   MeterRegistry meterRegistry) {
+        RateLimiter rateLimiter = properties.getMode() == RateLimitProperties.Mode.REDIS
+                ? new RedisRateLimiter(redisTemplate, properties, localRateLimiter)
+                : localRateLimiter;
+
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(rateLimiter, properties, securityContextService, meterRegistry));
+        // Сразу после springSecurityFilterChain
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -1,18 +1,37 @@
 package org.work.depositservice.config;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationManagerResolver;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.OpaqueTokenAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
+import org.work.depositservice.introspection.CachingOpaqueTokenIntrospector;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Autowired
+    private ObjectProvider<JwtDecoder> jwtDecoder;
+
+    @Autowired
+    private ObjectProvider<CachingOpaqueTokenIntrospector> opaqueTokenIntrospector;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -31,6 +50,9 @@ public class SecurityConfig {
                         // Admin only - управление типами депозитов
                         .requestMatchers("/api/deposit-types/**").hasRole("ADMIN")
 
+                        // Пакетный поиск счетов - для отчетов и фоновых задач
+                        .requestMatchers(HttpMethod.POST, "/api/accounts/lookup").hasRole("ADMIN")
+
                         // User endpoints - клиенты управляют своими счетами
                         .requestMatchers("/api/accounts/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/deposits/**").hasAnyRole("USER", "ADMIN")
@@ -38,13 +60,41 @@ public class SecurityConfig {
                         // Все остальные запросы требуют аутентификации
                         .anyRequest().authenticated()
                 )
-                .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
-                );
+                .oauth2ResourceServer(oauth2 -> {
+                    CachingOpaqueTokenIntrospector introspector = opaqueTokenIntrospector.getIfAvailable();
+                    if (introspector != null) {
+                        oauth2.authenticationManagerResolver(tokenAuthenticationManagerResolver(introspector));
+                    } else {
+                        oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()));
+                    }
+                });
 
         return http.build();
     }
 
+    /**
+     * При включенном introspection принимаются оба вида токенов: JWT проверяется локально,
+     * opaque (reference) - через auth-service с кэшем.
+     */
+    private AuthenticationManagerResolver<HttpServletRequest> tokenAuthenticationManagerResolver(
+            CachingOpaqueTokenIntrospector introspector) {
+        JwtAuthenticationProvider jwtProvider = new JwtAuthenticationProvider(jwtDecoder.getObject());
+        jwtProvider.setJwtAuthenticationConverter(jwtAuthenticationConverter());
+        AuthenticationManager jwtManager = new ProviderManager(jwtProvider);
+        AuthenticationManager opaqueManager = new ProviderManager(new OpaqueTokenAuthenticationProvider(introspector));
+
+        BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+        return request -> {
+            String token = bearerTokenResolver.resolve(request);
+            return token != null && isJwt(token) ? jwtManager : opaqueManager;
+        };
+    }
+
+    // JWS compact serialization: header.payload.signature; opaque токены auth-service без точек
+    private static boolean isJwt(String token) {
+        return token.chars().filter(c -> c == '.').count() == 2;
+    }
+
     /**
      * Конвертер для маппинга ролей из JWT
      */
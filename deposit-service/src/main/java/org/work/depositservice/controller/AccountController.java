@@ -1,11 +1,15 @@
 package org.work.depositservice.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.work.depositservice.dto.AccountDto;
+import org.work.depositservice.dto.AccountLookupRequest;
+import org.work.depositservice.dto.AccountLookupResponse;
 import org.work.depositservice.service.AccountService;
-import java.util.Optional;
+import org.work.depositservice.service.ResourceVersionService;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -14,6 +18,9 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     @PostMapping
     public ResponseEntity<AccountDto> createAccount(
             @RequestParam String clientId,
@@ -26,20 +33,36 @@ public class AccountController {
     }
 
     @GetMapping("/{accountNumber}")
-    public ResponseEntity<AccountDto> getAccount(@PathVariable String accountNumber) {
-        Optional<AccountDto> account = accountService.getAccountByNumber(accountNumber)
-                .map(accountService::convertToDto);
-
-        return account.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<AccountDto> getAccount(@PathVariable String accountNumber, WebRequest webRequest) {
+        return ConditionalResponses.conditional(webRequest,
+                resourceVersionService.currentEtag(ResourceVersionService.accountKey(accountNumber)),
+                CacheControl.noCache().cachePrivate(),
+                () -> accountService.getAccountByNumber(accountNumber)
+                        .map(accountService::convertToDto)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<AccountDto> getAccountByClient(@PathVariable String clientId) {
-        Optional<AccountDto> account = accountService.getAccountByClientId(clientId)
-                .map(accountService::convertToDto);
+    public ResponseEntity<AccountDto> getAccountByClient(@PathVariable String clientId, WebRequest webRequest) {
+        return ConditionalResponses.conditional(webRequest,
+                resourceVersionService.currentEtag(ResourceVersionService.clientAccountsKey(clientId)),
+                CacheControl.noCache().cachePrivate(),
+                () -> accountService.getAccountByClientId(clientId)
+                        .map(accountService::convertToDto)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
+    }
 
-        return account.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    /**
+     * Пакетный поиск счетов: тысячи номеров или clientId за один HTTP-вызов
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<AccountLookupResponse> lookupAccounts(@RequestBody AccountLookupRequest request) {
+        try {
+            return ResponseEntity.ok(accountService.lookupAccounts(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package org.work.depositservice.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.work.depositservice.dto.DepositRequest;
 import org.work.depositservice.dto.DepositResponse;
 import org.work.depositservice.service.DepositService;
+import org.work.depositservice.service.ResourceVersionService;
 import java.util.List;
 
 @RestController
@@ -15,6 +18,9 @@ public class DepositController {
     @Autowired
     private DepositService depositService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     @PostMapping
     public ResponseEntity<DepositResponse> createDeposit(@RequestBody DepositRequest request) {
         try {
@@ -26,15 +32,22 @@ public class DepositController {
     }
 
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<DepositResponse>> getClientDeposits(@PathVariable String clientId) {
-        List<DepositResponse> deposits = depositService.getDepositsByClient(clientId);
-        return ResponseEntity.ok(deposits);
+    public ResponseEntity<List<DepositResponse>> getClientDeposits(@PathVariable String clientId, WebRequest webRequest) {
+        // В ответе есть название и ставка типа депозита, поэтому версия типов тоже входит в ETag
+        return ConditionalResponses.conditional(webRequest,
+                resourceVersionService.currentEtag(
+                        ResourceVersionService.clientDepositsKey(clientId), ResourceVersionService.DEPOSIT_TYPES),
+                CacheControl.noCache().cachePrivate(),
+                () -> ResponseEntity.ok(depositService.getDepositsByClient(clientId)));
     }
 
     @GetMapping("/account/{accountNumber}")
-    public ResponseEntity<List<DepositResponse>> getAccountDeposits(@PathVariable String accountNumber) {
-        List<DepositResponse> deposits = depositService.getDepositsByAccount(accountNumber);
-        return ResponseEntity.ok(deposits);
+    public ResponseEntity<List<DepositResponse>> getAccountDeposits(@PathVariable String accountNumber, WebRequest webRequest) {
+        return ConditionalResponses.conditional(webRequest,
+                resourceVersionService.currentEtag(
+                        ResourceVersionService.accountDepositsKey(accountNumber), ResourceVersionService.DEPOSIT_TYPES),
+                CacheControl.noCache().cachePrivate(),
+                () -> ResponseEntity.ok(depositService.getDepositsByAccount(accountNumber)));
     }
 
     @PostMapping("/{depositId}/close")
@@ -1,10 +1,15 @@
 package org.work.depositservice.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.work.depositservice.entity.DepositType;
 import org.work.depositservice.service.DepositTypeService;
+import org.work.depositservice.service.ResourceVersionService;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -14,32 +19,45 @@ public class DepositTypeController {
     @Autowired
     private DepositTypeService depositTypeService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Value("${http-cache.deposit-types.max-age:60s}")
+    private Duration publicMaxAge;
+
     /**
      * Получить все активные типы депозитов (для клиентов)
      */
     @GetMapping("/active")
-    public ResponseEntity<List<DepositType>> getActiveDepositTypes() {
-        List<DepositType> depositTypes = depositTypeService.getAllActiveDepositTypes();
-        return ResponseEntity.ok(depositTypes);
+    public ResponseEntity<List<DepositType>> getActiveDepositTypes(WebRequest webRequest) {
+        return ConditionalResponses.conditional(webRequest,
+                resourceVersionService.currentEtag(ResourceVersionService.DEPOSIT_TYPES),
+                CacheControl.maxAge(publicMaxAge).cachePublic(),
+                () -> ResponseEntity.ok(depositTypeService.getAllActiveDepositTypes()));
     }
 
     /**
      * Получить все типы депозитов (для администраторов)
      */
     @GetMapping
-    public ResponseEntity<List<DepositType>> getAllDepositTypes() {
-        List<DepositType> depositTypes = depositTypeService.getAllDepositTypes();
-        return ResponseEntity.ok(depositTypes);
+    public ResponseEntity<List<DepositType>> getAllDepositTypes(WebRequest webRequest) {
+        return ConditionalResponses.conditional(webRequest,
+                resourceVersionService.currentEtag(ResourceVersionService.DEPOSIT_TYPES),
+                CacheControl.noCache().cachePrivate(),
+                () -> ResponseEntity.ok(depositTypeService.getAllDepositTypes()));
     }
 
     /**
      * Получить тип депозита по ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<DepositType> getDepositType(@PathVariable Long id) {
-        return depositTypeService.getActiveDepositType(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<DepositType> getDepositType(@PathVariable Long id, WebRequest webRequest) {
+        return ConditionalResponses.conditional(webRequest,
+                resourceVersionService.currentEtag(ResourceVersionService.DEPOSIT_TYPES),
+                CacheControl.noCache().cachePrivate(),
+                () -> depositTypeService.getActiveDepositType(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     /**
@@ -0,0 +1,31 @@
+package org.work.depositservice.dto;
+
+import java.util.List;
+
+public class AccountLookupRequest {
+    private List<String> accountNumbers;
+    private List<String> clientIds;
+
+    public AccountLookupRequest() {}
+
+    public AccountLookupRequest(List<String> accountNumbers, List<String> clientIds) {
+        this.accountNumbers = accountNumbers;
+        this.clientIds = clientIds;
+    }
+
+    public List<String> getAccountNumbers() {
+        return accountNumbers;
+    }
+
+    public List<String> getClientIds() {
+        return clientIds;
+    }
+
+    public void setAccountNumbers(List<String> accountNumbers) {
+        this.accountNumbers = accountNumbers;
+    }
+
+    public void setClientIds(List<String> clientIds) {
+        this.clientIds = clientIds;
+    }
+}
@@ -0,0 +1,44 @@
+package org.work.depositservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AccountLookupResponse {
+    private List<AccountSummaryDto> accounts = new ArrayList<>();
+    private List<String> missingAccountNumbers = new ArrayList<>();
+    private List<String> missingClientIds = new ArrayList<>();
+
+    public AccountLookupResponse() {}
+
+    public AccountLookupResponse(List<AccountSummaryDto> accounts,
+                                 List<String> missingAccountNumbers,
+                                 List<String> missingClientIds) {
+        this.accounts = accounts;
+        this.missingAccountNumbers = missingAccountNumbers;
+        this.missingClientIds = missingClientIds;
+    }
+
+    public List<AccountSummaryDto> getAccounts() {
+        return accounts;
+    }
+
+    public List<String> getMissingAccountNumbers() {
+        return missingAccountNumbers;
+    }
+
+    public List<String> getMissingClientIds() {
+        return missingClientIds;
+    }
+
+    public void setAccounts(List<AccountSummaryDto> accounts) {
+        this.accounts = accounts;
+    }
+
+    public void setMissingAccountNumbers(List<String> missingAccountNumbers) {
+        this.missingAccountNumbers = missingAccountNumbers;
+    }
+
+    public void setMissingClientIds(List<String> missingClientIds) {
+        this.missingClientIds = missingClientIds;
+    }
+}
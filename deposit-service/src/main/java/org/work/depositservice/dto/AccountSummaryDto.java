@@ -0,0 +1,55 @@
+package org.work.depositservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Компактное представление счета для пакетных запросов: только то, что нужно для расчетов и отчетов.
+ */
+public class AccountSummaryDto {
+    private String accountNumber;
+    private String clientId;
+    private BigDecimal balance;
+    private String currency;
+
+    public AccountSummaryDto() {
+    }
+
+    public AccountSummaryDto(String accountNumber, String clientId, BigDecimal balance, String currency) {
+        this.accountNumber = accountNumber;
+        this.clientId = clientId;
+        this.balance = balance;
+        this.currency = currency;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+}
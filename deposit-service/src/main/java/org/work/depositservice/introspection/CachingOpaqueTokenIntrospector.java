@@ -0,0 +1,90 @@
+package org.work.depositservice.introspection;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Introspection с локальным кэшем: активный токен кэшируется на cacheTtl (но не дольше его exp),
+ * недействительный - на negativeCacheTtl. Сетевые ошибки не кэшируются.
+ * Параллельные запросы с одним токеном делают один вызов auth-service.
+ */
+public class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+
+    private static final String ROLES_CLAIM = "roles";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final OpaqueTokenIntrospector delegate;
+    private final Cache<String, OAuth2AuthenticatedPrincipal> active;
+    private final Cache<String, Boolean> rejected;
+
+    public CachingOpaqueTokenIntrospector(OpaqueTokenIntrospector delegate,
+                                          IntrospectionProperties properties,
+                                          MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.active = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .recordStats()
+                .build();
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getNegativeCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, active, "token-introspection");
+        CaffeineCacheMetrics.monitor(meterRegistry, rejected, "token-introspection-rejected");
+    }
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        if (rejected.getIfPresent(token) != null) {
+            throw new BadOpaqueTokenException("Provided token isn't active");
+        }
+
+        OAuth2AuthenticatedPrincipal principal;
+        try {
+            principal = active.get(token, key -> withRoles(delegate.introspect(key)));
+        } catch (BadOpaqueTokenException e) {
+            rejected.put(token, Boolean.TRUE);
+            throw e;
+        }
+
+        Instant expiresAt = principal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP);
+        if (expiresAt != null && expiresAt.isBefore(Instant.now())) {
+            active.invalidate(token);
+            rejected.put(token, Boolean.TRUE);
+            throw new BadOpaqueTokenException("Provided token isn't active");
+        }
+        return principal;
+    }
+
+    /**
+     * Роли из claim "roles" в ROLE_* authorities, как и для JWT.
+     */
+    private static OAuth2AuthenticatedPrincipal withRoles(OAuth2AuthenticatedPrincipal principal) {
+        Object roles = principal.getAttribute(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> roleNames) || roleNames.isEmpty()) {
+            return principal;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(principal.getAuthorities());
+        for (Object role : roleNames) {
+            String name = String.valueOf(role);
+            authorities.add(new SimpleGrantedAuthority(name.startsWith(ROLE_PREFIX) ? name : ROLE_PREFIX + name));
+        }
+        return new OAuth2IntrospectionAuthenticatedPrincipal(principal.getName(), principal.getAttributes(), authorities);
+    }
+}
@@ -0,0 +1,98 @@
+package org.work.depositservice.introspection;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Проверка opaque (reference) токенов через /oauth2/introspect auth-service.
+ * JWT по-прежнему проверяются локально по JWKS.
+ */
+@ConfigurationProperties(prefix = "introspection")
+public class IntrospectionProperties {
+
+    private boolean enabled = false;
+    private String uri = "http://localhost:8081/auth/oauth2/introspect";
+    // Клиент auth-service с client_secret_basic, которым deposit-service вызывает introspection
+    private String clientId = "deposit-service";
+    private String clientSecret;
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(2);
+    // Сколько доверяем ответу active=true: столько отзыв токена может не замечаться
+    private Duration cacheTtl = Duration.ofSeconds(5);
+    // Недействительный токен снова действительным не станет - храним дольше
+    private Duration negativeCacheTtl = Duration.ofSeconds(60);
+    private long cacheMaxSize = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getClientSecret() {
+        return clientSecret;
+    }
+
+    public void setClientSecret(String clientSecret) {
+        this.clientSecret = clientSecret;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public Duration getNegativeCacheTtl() {
+        return negativeCacheTtl;
+    }
+
+    public void setNegativeCacheTtl(Duration negativeCacheTtl) {
+        this.negativeCacheTtl = negativeCacheTtl;
+    }
+
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+}
@@ -0,0 +1,83 @@
+package org.work.depositservice.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket в памяти процесса, реализованный как GCRA:
+ * состояние корзины - один AtomicLong с "теоретическим временем прихода" (TAT),
+ * списание токенов - CAS без блокировок и без аллокаций на горячем пути.
+ */
+public class LocalRateLimiter implements RateLimiter, AutoCloseable {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final long idleTimeoutNanos;
+    private final LongSupplier nanoClock;
+    private final ScheduledExecutorService evictor;
+
+    public LocalRateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    // Часы подменяются в тестах
+    LocalRateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / properties.getRefillPerSecond());
+        this.burstWindowNanos = emissionIntervalNanos * properties.getCapacity();
+        this.idleTimeoutNanos = properties.getIdleTimeout().toNanos();
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(properties.getIdleTimeout().toMillis() / 2, 1000);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long tryAcquire(String key, int cost) {
+        AtomicLong tat = buckets.get(key);
+        long now = nanoClock.getAsLong();
+        if (tat == null) {
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        long increment = emissionIntervalNanos * cost;
+        while (true) {
+            long current = tat.get();
+            long newTat = Math.max(current, now) + increment;
+            long waitNanos = newTat - burstWindowNanos - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (tat.compareAndSet(current, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Удаляет корзины, которые полностью пополнились и простаивают дольше idleTimeout.
+     * Гонка с одновременным запросом в худшем случае дарит клиенту одну полную корзину.
+     */
+    void evictIdle() {
+        long threshold = nanoClock.getAsLong() - idleTimeoutNanos;
+        buckets.values().removeIf(tat -> tat.get() - threshold < 0);
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+    }
+}
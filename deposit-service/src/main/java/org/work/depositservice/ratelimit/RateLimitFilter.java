@@ -0,0 +1,69 @@
+package org.work.depositservice.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.work.depositservice.service.SecurityContextService;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает частоту запросов к /api/** по клиенту (JWT sub, для анонимных - IP).
+ * Регистрируется после Spring Security, чтобы SecurityContext уже был заполнен.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final SecurityContextService securityContextService;
+    private final Counter rejected;
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties,
+                           SecurityContextService securityContextService, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.securityContextService = securityContextService;
+        this.rejected = Counter.builder("deposit.ratelimit.rejected")
+                .description("Запросы, отклоненные лимитером с 429")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !pathOf(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = securityContextService.findCurrentUserId()
+                .map(userId -> "user:" + userId)
+                .orElseGet(() -> "ip:" + request.getRemoteAddr());
+        int cost = properties.costFor(request.getMethod(), pathOf(request));
+
+        long waitNanos = rateLimiter.tryAcquire(key, cost);
+        if (waitNanos > 0) {
+            rejected.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,143 @@
+package org.work.depositservice.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    public enum Mode {
+        LOCAL, REDIS
+    }
+
+    private boolean enabled = true;
+    private Mode mode = Mode.LOCAL;
+    // Размер корзины (допустимый всплеск) и скорость пополнения
+    private int capacity = 100;
+    private double refillPerSecond = 50;
+    // Через сколько после полного пополнения корзина удаляется из памяти
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private int defaultCost = 1;
+    // Первое совпавшее правило определяет стоимость запроса
+    private List<CostRule> costs = new ArrayList<>(List.of(
+            new CostRule("POST", "/api/accounts/lookup", 20),
+            new CostRule("POST", "/api/deposits/**", 5),
+            new CostRule("POST", "/api/accounts", 5)
+    ));
+
+    public int costFor(String method, String path) {
+        for (CostRule rule : costs) {
+            if (rule.matches(method, path)) {
+                return Math.min(rule.getCost(), capacity);
+            }
+        }
+        return Math.min(defaultCost, capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getRefillPerSecond() {
+        return refillPerSecond;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public int getDefaultCost() {
+        return defaultCost;
+    }
+
+    public List<CostRule> getCosts() {
+        return costs;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setRefillPerSecond(double refillPerSecond) {
+        this.refillPerSecond = refillPerSecond;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public void setDefaultCost(int defaultCost) {
+        this.defaultCost = defaultCost;
+    }
+
+    public void setCosts(List<CostRule> costs) {
+        this.costs = costs;
+    }
+
+    public static class CostRule {
+        // null - любой метод
+        private String method;
+        private String pattern;
+        private int cost = 1;
+
+        public CostRule() {
+        }
+
+        public CostRule(String method, String pattern, int cost) {
+            this.method = method;
+            this.pattern = pattern;
+            this.cost = cost;
+        }
+
+        boolean matches(String requestMethod, String path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod))
+                    && PATH_MATCHER.match(pattern, path);
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public void setCost(int cost) {
+            this.cost = cost;
+        }
+    }
+}
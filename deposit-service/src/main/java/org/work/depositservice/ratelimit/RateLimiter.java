@@ -0,0 +1,14 @@
+package org.work.depositservice.ratelimit;
+
+/**
+ * Лимитер запросов по ключу клиента.
+ */
+public interface RateLimiter {
+
+    /**
+     * Пытается списать cost токенов из корзины ключа.
+     *
+     * @return 0, если запрос пропущен, иначе сколько наносекунд ждать до повтора
+     */
+    long tryAcquire(String key, int cost);
+}
@@ -0,0 +1,59 @@
+package org.work.depositservice.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тот же GCRA, но состояние корзины хранится в Redis, поэтому квота общая для всех инстансов.
+ * Время берется из Redis (TIME), чтобы не зависеть от расхождения часов между узлами.
+ * При недоступности Redis запросы ограничиваются локальным лимитером.
+ */
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    private static final String KEY_PREFIX = "deposit-service:rate-limit:";
+
+    private static final RedisScript<Long> GCRA_SCRIPT = new DefaultRedisScript<>("""
+            local t = redis.call('TIME')
+            local now = tonumber(t[1]) * 1000000 + tonumber(t[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]))
+            if tat == nil or tat < now then tat = now end
+            local newTat = tat + tonumber(ARGV[1])
+            local wait = newTat - tonumber(ARGV[2]) - now
+            if wait > 0 then return wait end
+            redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', math.ceil((newTat - now) / 1000) + 1)
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimiter fallback;
+    private final long emissionIntervalMicros;
+    private final String burstWindowMicros;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, RateLimitProperties properties, RateLimiter fallback) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        this.emissionIntervalMicros = (long) (TimeUnit.SECONDS.toMicros(1) / properties.getRefillPerSecond());
+        this.burstWindowMicros = Long.toString(emissionIntervalMicros * properties.getCapacity());
+    }
+
+    @Override
+    public long tryAcquire(String key, int cost) {
+        try {
+            Long waitMicros = redisTemplate.execute(GCRA_SCRIPT, List.of(KEY_PREFIX + key),
+                    Long.toString(emissionIntervalMicros * cost), burstWindowMicros);
+            return waitMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+        } catch (DataAccessException e) {
+            log.warn("Redis недоступен для лимитера, используем локальные корзины: {}", e.getMessage());
+            return fallback.tryAcquire(key, cost);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package org.work.depositservice.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.work.depositservice.dto.AccountSummaryDto;
 import org.work.depositservice.entity.Account;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -10,4 +15,13 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
     Optional<Account> findByClientId(String clientId);
     boolean existsByAccountNumber(String accountNumber);
-}
\ No newline at end of file
+
+    // Проекция сразу в DTO: без гидрации сущностей и dirty checking для пакетных выборок
+    @Query("select new org.work.depositservice.dto.AccountSummaryDto(a.accountNumber, a.clientId, a.balance, a.currency) " +
+            "from Account a where a.accountNumber in :accountNumbers")
+    List<AccountSummaryDto> findSummariesByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    @Query("select new org.work.depositservice.dto.AccountSummaryDto(a.accountNumber, a.clientId, a.balance, a.currency) " +
+            "from Account a where a.clientId in :clientIds")
+    List<AccountSummaryDto> findSummariesByClientIdIn(@Param("clientIds") Collection<String> clientIds);
+}
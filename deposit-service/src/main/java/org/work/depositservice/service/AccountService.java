@@ -1,13 +1,26 @@
 package org.work.depositservice.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.work.depositservice.concurrency.SingleFlight;
 import org.work.depositservice.dto.AccountDto;
+import org.work.depositservice.dto.AccountLookupRequest;
+import org.work.depositservice.dto.AccountLookupResponse;
+import org.work.depositservice.dto.AccountSummaryDto;
 import org.work.depositservice.entity.Account;
 import org.work.depositservice.repository.AccountRepository;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class AccountService {
@@ -15,6 +28,21 @@ public class AccountService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private ChangeEventPublisher changeEventPublisher;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Value("${accounts.lookup.chunk-size:1000}")
+    private int lookupChunkSize;
+
+    @Value("${accounts.lookup.max-keys:10000}")
+    private int lookupMaxKeys;
+
     @Transactional
     public Account createAccount(String clientId, String currency) {
         String accountNumber = generateAccountNumber();
@@ -25,17 +53,96 @@ public class AccountService {
         account.setCurrency(currency);
         account.setBalance(BigDecimal.ZERO);
 
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        resourceVersionService.invalidate(
+                ResourceVersionService.accountKey(accountNumber),
+                ResourceVersionService.clientAccountsKey(clientId));
+        changeEventPublisher.accountChanged(saved);
+        return saved;
     }
 
     public Optional<Account> getAccountByNumber(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber);
+        // В транзакции сущность должна принадлежать своему persistence context - не делим ее с другими потоками
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return accountRepository.findByAccountNumber(accountNumber);
+        }
+        return singleFlight.execute("account:" + accountNumber,
+                () -> accountRepository.findByAccountNumber(accountNumber));
     }
 
     public Optional<Account> getAccountByClientId(String clientId) {
         return accountRepository.findByClientId(clientId);
     }
 
+    /**
+     * Пакетный поиск счетов по номерам и/или clientId.
+     * Ключи дедуплицируются и разбиваются на чанки, каждый чанк - один запрос с IN.
+     */
+    @Transactional(readOnly = true)
+    public AccountLookupResponse lookupAccounts(AccountLookupRequest request) {
+        Set<String> accountNumbers = normalizeKeys(request.getAccountNumbers());
+        Set<String> clientIds = normalizeKeys(request.getClientIds());
+
+        if (accountNumbers.size() + clientIds.size() > lookupMaxKeys) {
+            throw new IllegalArgumentException("Слишком много ключей в запросе, максимум " + lookupMaxKeys);
+        }
+
+        List<AccountSummaryDto> accounts = new ArrayList<>();
+        Set<String> foundAccountNumbers = new HashSet<>();
+        Set<String> foundClientIds = new HashSet<>();
+
+        for (AccountSummaryDto summary : findInChunks(accountNumbers, accountRepository::findSummariesByAccountNumberIn)) {
+            foundAccountNumbers.add(summary.getAccountNumber());
+            accounts.add(summary);
+        }
+
+        for (AccountSummaryDto summary : findInChunks(clientIds, accountRepository::findSummariesByClientIdIn)) {
+            foundClientIds.add(summary.getClientId());
+            // Счет мог уже попасть в ответ по номеру
+            if (!foundAccountNumbers.contains(summary.getAccountNumber())) {
+                foundAccountNumbers.add(summary.getAccountNumber());
+                accounts.add(summary);
+            }
+        }
+
+        List<String> missingAccountNumbers = accountNumbers.stream()
+                .filter(number -> !foundAccountNumbers.contains(number))
+                .toList();
+        List<String> missingClientIds = clientIds.stream()
+                .filter(clientId -> !foundClientIds.contains(clientId))
+                .toList();
+
+        return new AccountLookupResponse(accounts, missingAccountNumbers, missingClientIds);
+    }
+
+    private List<AccountSummaryDto> findInChunks(Collection<String> keys,
+                                                 Function<Collection<String>, List<AccountSummaryDto>> query) {
+        List<AccountSummaryDto> result = new ArrayList<>(keys.size());
+        List<String> chunk = new ArrayList<>(Math.min(keys.size(), lookupChunkSize));
+        for (String key : keys) {
+            chunk.add(key);
+            if (chunk.size() == lookupChunkSize) {
+                result.addAll(query.apply(chunk));
+                chunk = new ArrayList<>(lookupChunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            result.addAll(query.apply(chunk));
+        }
+        return result;
+    }
+
+    private Set<String> normalizeKeys(List<String> keys) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (keys != null) {
+            for (String key : keys) {
+                if (key != null && !key.isBlank()) {
+                    normalized.add(key.trim());
+                }
+            }
+        }
+        return normalized;
+    }
 
     @Transactional
     public void updateBalance(String accountNumber, BigDecimal amount) {
@@ -44,6 +151,10 @@ public class AccountService {
 
         account.deposit(amount);
         accountRepository.save(account);
+        resourceVersionService.invalidate(
+                ResourceVersionService.accountKey(accountNumber),
+                ResourceVersionService.clientAccountsKey(account.getClientId()));
+        changeEventPublisher.accountChanged(account);
     }
 
     private String generateAccountNumber() {
@@ -0,0 +1,93 @@
+package org.work.depositservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.work.depositservice.entity.Account;
+import org.work.depositservice.entity.Deposit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * События об изменении счетов и депозитов клиента в Redis-канал deposit-service:changes.
+ * Подписчик (web-service) пересылает их в браузер, поэтому в событии только то,
+ * что нужно для точечного обновления страницы. Публикация - после коммита;
+ * недоставленное событие не ошибка, страница все равно получит данные при следующей загрузке.
+ */
+@Service
+public class ChangeEventPublisher {
+
+    public static final String CHANNEL = "deposit-service:changes";
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeEventPublisher.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${change-events.enabled:true}")
+    private boolean enabled;
+
+    public void accountChanged(Account account) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "account");
+        event.put("clientId", account.getClientId());
+        event.put("accountNumber", account.getAccountNumber());
+        event.put("balance", account.getBalance());
+        event.put("currency", account.getCurrency());
+        publish(event);
+    }
+
+    public void depositChanged(Deposit deposit) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "deposit");
+        event.put("clientId", deposit.getAccount().getClientId());
+        event.put("accountNumber", deposit.getAccount().getAccountNumber());
+        event.put("depositId", deposit.getId());
+        event.put("amount", deposit.getAmount());
+        event.put("status", deposit.getStatus());
+        publish(event);
+    }
+
+    private void publish(Map<String, Object> event) {
+        if (!enabled) {
+            return;
+        }
+        String message;
+        try {
+            message = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось сериализовать событие {}: {}", event, e.getMessage());
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(message);
+                }
+            });
+        } else {
+            send(message);
+        }
+    }
+
+    private void send(String message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось опубликовать событие: {}", e.getMessage());
+        }
+    }
+}
@@ -35,6 +35,12 @@ public class DepositService {
     @Autowired
     private DepositTypeRepository depositTypeRepository;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private ChangeEventPublisher changeEventPublisher;
+
     @Transactional
     public DepositResponse createDeposit(DepositRequest request) {
 
@@ -59,6 +65,8 @@ public class DepositService {
         deposit.setEndDate(LocalDateTime.now().plusMonths(depositType.getTermMonths()));
 
         Deposit savedDeposit = depositRepository.save(deposit);
+        invalidateDeposits(account);
+        changeEventPublisher.depositChanged(savedDeposit);
 
         return convertToResponse(savedDeposit);
     }
@@ -94,12 +102,20 @@ public class DepositService {
 
         deposit.setStatus("CLOSED");
         depositRepository.save(deposit);
+        invalidateDeposits(deposit.getAccount());
+        changeEventPublisher.depositChanged(deposit);
     }
 
     public Optional<DepositType> getActiveDepositType(Long depositTypeId) {
         return depositTypeRepository.findByIdAndIsActiveTrue(depositTypeId);
     }
 
+    private void invalidateDeposits(Account account) {
+        resourceVersionService.invalidate(
+                ResourceVersionService.accountDepositsKey(account.getAccountNumber()),
+                ResourceVersionService.clientDepositsKey(account.getClientId()));
+    }
+
     private DepositResponse convertToResponse(Deposit deposit) {
         DepositResponse response = new DepositResponse();
         response.setId(deposit.getId());
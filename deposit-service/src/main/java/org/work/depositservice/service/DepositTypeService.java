@@ -2,6 +2,8 @@ package org.work.depositservice.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.work.depositservice.concurrency.SingleFlight;
 import org.work.depositservice.entity.DepositType;
 import org.work.depositservice.repository.DepositTypeRepository;
 import java.util.List;
@@ -13,12 +15,23 @@ public class DepositTypeService {
     @Autowired
     private DepositTypeRepository depositTypeRepository;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
     public List<DepositType> getAllActiveDepositTypes() {
         return depositTypeRepository.findByIsActiveTrue();
     }
 
     public Optional<DepositType> getActiveDepositType(Long id) {
-        return depositTypeRepository.findByIdAndIsActiveTrue(id);
+        // В транзакции сущность должна принадлежать своему persistence context - не делим ее с другими потоками
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return depositTypeRepository.findByIdAndIsActiveTrue(id);
+        }
+        return singleFlight.execute("deposit-type:" + id,
+                () -> depositTypeRepository.findByIdAndIsActiveTrue(id));
     }
 
     public List<DepositType> getAllDepositTypes() {
@@ -34,7 +47,9 @@ public class DepositTypeService {
             throw new IllegalArgumentException("Срок депозита должен быть положительным");
         }
 
-        return depositTypeRepository.save(depositType);
+        DepositType saved = depositTypeRepository.save(depositType);
+        resourceVersionService.invalidate(ResourceVersionService.DEPOSIT_TYPES);
+        return saved;
     }
 
     public DepositType updateDepositType(Long id, DepositType updatedDepositType) {
@@ -47,7 +62,9 @@ public class DepositTypeService {
         existingDepositType.setDescription(updatedDepositType.getDescription());
         existingDepositType.setActive(updatedDepositType.getActive());
 
-        return depositTypeRepository.save(existingDepositType);
+        DepositType saved = depositTypeRepository.save(existingDepositType);
+        resourceVersionService.invalidate(ResourceVersionService.DEPOSIT_TYPES);
+        return saved;
     }
 
     public void deactivateDepositType(Long id) {
@@ -56,6 +73,7 @@ public class DepositTypeService {
 
         depositType.setActive(false);
         depositTypeRepository.save(depositType);
+        resourceVersionService.invalidate(ResourceVersionService.DEPOSIT_TYPES);
     }
 
     public void activateDepositType(Long id) {
@@ -64,6 +82,7 @@ public class DepositTypeService {
 
         depositType.setActive(true);
         depositTypeRepository.save(depositType);
+        resourceVersionService.invalidate(ResourceVersionService.DEPOSIT_TYPES);
     }
 
     public boolean isDepositTypeAvailable(Long id) {
@@ -0,0 +1,124 @@
+package org.work.depositservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Версии агрегатов для ETag/conditional GET.
+ * Версия хранится в Redis, чтобы все инстансы отдавали одинаковый ETag.
+ * Запись после коммита заменяет версию новой случайной, отсутствующую версию заводит чтение (SET NX),
+ * поэтому проверка If-None-Match стоит один MGET и не трогает БД. Версии случайные, а не по времени:
+ * повтор прежней версии (запись и чтение в одну миллисекунду, расхождение часов узлов)
+ * дал бы клиенту 304 на устаревшие данные.
+ */
+@Service
+public class ResourceVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceVersionService.class);
+
+    private static final String KEY_PREFIX = "deposit-service:version:";
+
+    public static final String DEPOSIT_TYPES = "deposit-types";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${http-cache.version-ttl:24h}")
+    private Duration versionTtl;
+
+    public static String accountKey(String accountNumber) {
+        return "account:" + accountNumber;
+    }
+
+    public static String clientAccountsKey(String clientId) {
+        return "accounts:client:" + clientId;
+    }
+
+    public static String accountDepositsKey(String accountNumber) {
+        return "deposits:account:" + accountNumber;
+    }
+
+    public static String clientDepositsKey(String clientId) {
+        return "deposits:client:" + clientId;
+    }
+
+    /**
+     * Строгий ETag из текущих версий перечисленных агрегатов.
+     * Возвращает null, если Redis недоступен - тогда ответ отдается без ETag.
+     */
+    public String currentEtag(String... keys) {
+        try {
+            List<String> redisKeys = Arrays.stream(keys).map(key -> KEY_PREFIX + key).toList();
+            List<String> versions = redisTemplate.opsForValue().multiGet(redisKeys);
+
+            StringBuilder etag = new StringBuilder("\"");
+            for (int i = 0; i < redisKeys.size(); i++) {
+                String version = versions != null ? versions.get(i) : null;
+                if (version == null) {
+                    version = initVersion(redisKeys.get(i));
+                }
+                if (i > 0) {
+                    etag.append('-');
+                }
+                etag.append(version);
+            }
+            return etag.append('"').toString();
+        } catch (DataAccessException e) {
+            log.warn("Не удалось получить версии {}: {}", Arrays.toString(keys), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Меняет версии агрегатов. В транзакции - только после коммита,
+     * иначе конкурентное чтение может закэшировать старые данные под новым ETag.
+     */
+    public void invalidate(String... keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(keys);
+                }
+            });
+        } else {
+            bump(keys);
+        }
+    }
+
+    private String initVersion(String redisKey) {
+        String seed = newVersion();
+        Boolean created = redisTemplate.opsForValue().setIfAbsent(redisKey, seed, versionTtl);
+        if (Boolean.TRUE.equals(created)) {
+            return seed;
+        }
+        String existing = redisTemplate.opsForValue().get(redisKey);
+        return existing != null ? existing : seed;
+    }
+
+    private void bump(String... keys) {
+        try {
+            for (String key : keys) {
+                redisTemplate.opsForValue().set(KEY_PREFIX + key, newVersion(), versionTtl);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Не удалось обновить версии {}: {}", Arrays.toString(keys), e.getMessage());
+        }
+    }
+
+    private static String newVersion() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+}
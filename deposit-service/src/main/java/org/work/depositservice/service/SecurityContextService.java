@@ -2,24 +2,29 @@ package org.work.depositservice.service;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class SecurityContextService {
 
     public String getCurrentUserId() {
-        return getJwt()
-                .map(jwt -> jwt.getSubject())
+        return findCurrentUserId()
                 .orElseThrow(() -> new RuntimeException("Пользователь не аутентифицирован"));
     }
 
+    public Optional<String> findCurrentUserId() {
+        return getClaims().map(claims -> (String) claims.get("sub"));
+    }
+
     public Optional<String> getCurrentUsername() {
-        return getJwt()
-                .map(jwt -> jwt.getClaimAsString("preferred_username"));
+        return getClaims()
+                .map(claims -> claims.get("preferred_username"))
+                .map(String::valueOf);
     }
 
     public boolean hasRole(String role) {
@@ -39,16 +44,26 @@ public class SecurityContextService {
         return getCurrentUserId().equals(userId) || isAdmin();
     }
 
-    private Optional<Jwt> getJwt() {
+    /**
+     * Claims текущего токена: JWT или ответ introspection для opaque токена.
+     */
+    private Optional<Map<String, Object>> getClaims() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication instanceof JwtAuthenticationToken) {
             JwtAuthenticationToken jwtAuth = (JwtAuthenticationToken) authentication;
-            return Optional.of(jwtAuth.getToken());
+            return Optional.of(jwtAuth.getToken().getClaims());
+        }
+        if (authentication instanceof BearerTokenAuthentication) {
+            BearerTokenAuthentication bearerAuth = (BearerTokenAuthentication) authentication;
+            return Optional.of(bearerAuth.getTokenAttributes());
         }
         return Optional.empty();
     }
 
     public <T> Optional<T> getClaim(String claimName, Class<T> claimType) {
-        return getJwt().map(jwt -> jwt.getClaim(claimName));
+        return getClaims()
+                .map(claims -> claims.get(claimName))
+                .filter(claimType::isInstance)
+                .map(claimType::cast);
     }
 }
\ No newline at end of file
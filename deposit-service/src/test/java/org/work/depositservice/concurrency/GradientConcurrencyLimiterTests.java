@@ -0,0 +1,104 @@
+package org.work.depositservice.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Задержка передается в release явно, поэтому нагрузку можно моделировать без часов и потоков.
+ * Настройки по умолчанию: начальный лимит 20, min 5, max 200, резерв под запись 20%.
+ */
+class GradientConcurrencyLimiterTests {
+
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+    private final GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(properties);
+
+    @Test
+    void readsLeaveReserveForWrites() {
+        for (int i = 1; i <= 16; i++) {
+            assertThat(limiter.tryAcquire(false)).isEqualTo(i);
+        }
+        assertThat(limiter.tryAcquire(false)).isEqualTo(-1);
+
+        for (int i = 17; i <= 20; i++) {
+            assertThat(limiter.tryAcquire(true)).isEqualTo(i);
+        }
+        assertThat(limiter.tryAcquire(true)).isEqualTo(-1);
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+    }
+
+    @Test
+    void releaseFreesSlot() {
+        limiter.tryAcquire(true);
+        limiter.release(BASE_RTT, 1, false);
+
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void limitGrowsWhileLatencyStaysAtBaseline() {
+        for (int i = 0; i < 50; i++) {
+            sample(BASE_RTT, limiter.getLimit());
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(properties.getInitialLimit());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyGrows() {
+        for (int i = 0; i < 20; i++) {
+            sample(BASE_RTT, limiter.getLimit());
+        }
+        int warmedUp = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            sample(10 * BASE_RTT, limiter.getLimit());
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(warmedUp);
+    }
+
+    @Test
+    void underloadedSamplesAreIgnored() {
+        for (int i = 0; i < 50; i++) {
+            sample(10 * BASE_RTT, 1);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(properties.getInitialLimit());
+    }
+
+    @Test
+    void dropBacksOffDownToMinLimit() {
+        limiter.tryAcquire(true);
+        limiter.release(BASE_RTT, 1, true);
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(true);
+            limiter.release(BASE_RTT, 1, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(properties.getMinLimit());
+    }
+
+    @Test
+    void limitIsCappedAtMaxLimit() {
+        properties.setMaxLimit(25);
+        GradientConcurrencyLimiter capped = new GradientConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 500; i++) {
+            capped.tryAcquire(true);
+            capped.release(BASE_RTT, capped.getLimit(), false);
+        }
+
+        assertThat(capped.getLimit()).isEqualTo(25);
+    }
+
+    private void sample(long rttNanos, int inFlightAtStart) {
+        limiter.tryAcquire(true);
+        limiter.release(rttNanos, inFlightAtStart, false);
+    }
+}
@@ -0,0 +1,110 @@
+package org.work.depositservice.ratelimit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GCRA на ручных часах: корзина на 10 токенов, 10 токенов в секунду (один токен - 100 мс).
+ */
+class LocalRateLimiterTests {
+
+    private static final long TOKEN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+    private LocalRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setCapacity(10);
+        properties.setRefillPerSecond(10);
+        properties.setIdleTimeout(Duration.ofMinutes(1));
+        limiter = new LocalRateLimiter(properties, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        limiter.close();
+    }
+
+    @Test
+    void allowsBurstUpToCapacityThenReportsWait() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("client", 1)).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("client", 1)).isEqualTo(TOKEN_NANOS);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        acquire("client", 10);
+        assertThat(limiter.tryAcquire("client", 1)).isPositive();
+        assertThat(limiter.tryAcquire("client", 1)).isEqualTo(TOKEN_NANOS);
+
+        advance(TOKEN_NANOS);
+
+        assertThat(limiter.tryAcquire("client", 1)).isZero();
+        assertThat(limiter.tryAcquire("client", 1)).isEqualTo(TOKEN_NANOS);
+    }
+
+    @Test
+    void refillsUpToCapacityOnly() {
+        acquire("client", 10);
+
+        // Простой дольше окна не копит токены сверх capacity
+        advance(TimeUnit.SECONDS.toNanos(5));
+
+        acquire("client", 10);
+        assertThat(limiter.tryAcquire("client", 1)).isEqualTo(TOKEN_NANOS);
+    }
+
+    @Test
+    void costIsChargedInTokens() {
+        assertThat(limiter.tryAcquire("client", 5)).isZero();
+        assertThat(limiter.tryAcquire("client", 5)).isZero();
+
+        assertThat(limiter.tryAcquire("client", 5)).isEqualTo(5 * TOKEN_NANOS);
+        advance(2 * TOKEN_NANOS);
+        assertThat(limiter.tryAcquire("client", 5)).isEqualTo(3 * TOKEN_NANOS);
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        acquire("first", 10);
+
+        assertThat(limiter.tryAcquire("first", 1)).isPositive();
+        assertThat(limiter.tryAcquire("second", 1)).isZero();
+    }
+
+    @Test
+    void evictsOnlyBucketsIdleAfterFullRefill() {
+        acquire("idle", 10);
+        advance(TimeUnit.SECONDS.toNanos(30));
+        acquire("active", 10);
+
+        // idle пополнилась через секунду и простаивает больше минуты, active - около 31 секунды
+        advance(TimeUnit.SECONDS.toNanos(32));
+        limiter.evictIdle();
+
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("active", 1)).isZero();
+    }
+
+    private void acquire(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(limiter.tryAcquire(key, 1)).isZero();
+        }
+    }
+
+    private void advance(long nanos) {
+        clock.addAndGet(nanos);
+    }
+}
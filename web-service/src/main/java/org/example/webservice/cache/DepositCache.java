@@ -0,0 +1,115 @@
+package org.example.webservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.webservice.service.ApiService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Депозиты пользователя из deposit-service, stale-while-revalidate.
+ * Моложе ttl - отдаются из кэша. Старше - тоже отдаются из кэша, а в фоне перезагружаются
+ * (не больше одной перезагрузки на пользователя). Запись живет max-stale: столько
+ * переживается недоступность deposit-service. Токен для фоновой загрузки - токен запроса,
+ * который ее вызвал. 404 от deposit-service - у клиента еще нет депозитов, кэшируется пустой список.
+ */
+@Component
+@Slf4j
+public class DepositCache {
+
+    private final ApiService apiService;
+    private final Executor backendExecutor;
+    private final long ttlMillis;
+    private final Cache<String, Entry> cache;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public DepositCache(ApiService apiService,
+                        @Qualifier("backendExecutor") Executor backendExecutor,
+                        MeterRegistry meterRegistry,
+                        @Value("${deposit-cache.max-size:10000}") long maxSize,
+                        @Value("${deposit-cache.ttl:30s}") Duration ttl,
+                        @Value("${deposit-cache.max-stale:10m}") Duration maxStale) {
+        this.apiService = apiService;
+        this.backendExecutor = backendExecutor;
+        this.ttlMillis = ttl.toMillis();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStale)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "deposits");
+    }
+
+    /**
+     * Бросает исключение клиента, только если в кэше ничего нет и deposit-service не ответил.
+     */
+    public Deposits get(String accessToken, String clientId) {
+        Entry entry = cache.getIfPresent(clientId);
+        if (entry == null) {
+            return new Deposits(load(accessToken, clientId).deposits(), false);
+        }
+        if (System.currentTimeMillis() - entry.loadedAt() < ttlMillis) {
+            return new Deposits(entry.deposits(), false);
+        }
+        refreshAsync(accessToken, clientId);
+        return new Deposits(entry.deposits(), true);
+    }
+
+    public void evict(String clientId) {
+        cache.invalidate(clientId);
+    }
+
+    private Entry load(String accessToken, String clientId) {
+        List<Map<String, Object>> deposits;
+        try {
+            deposits = apiService.getDeposits(accessToken, clientId);
+        } catch (HttpClientErrorException.NotFound e) {
+            deposits = List.of();
+        }
+        Entry entry = new Entry(deposits != null ? deposits : List.of(), System.currentTimeMillis());
+        cache.put(clientId, entry);
+        return entry;
+    }
+
+    private void refreshAsync(String accessToken, String clientId) {
+        if (!refreshing.add(clientId)) {
+            return;
+        }
+        try {
+            backendExecutor.execute(() -> {
+                try {
+                    load(accessToken, clientId);
+                } catch (RuntimeException e) {
+                    // Остается прежняя запись, следующий запрос попробует снова
+                    log.debug("Deposits refresh for {} failed: {}", clientId, e.toString());
+                } finally {
+                    refreshing.remove(clientId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(clientId);
+        }
+    }
+
+    private record Entry(List<Map<String, Object>> deposits, long loadedAt) {
+    }
+
+    /**
+     * @param stale данные старше ttl, свежие загружаются в фоне
+     */
+    public record Deposits(List<Map<String, Object>> deposits, boolean stale) {
+    }
+}
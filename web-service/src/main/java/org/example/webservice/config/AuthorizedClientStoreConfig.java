@@ -0,0 +1,68 @@
+package org.example.webservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.webservice.security.AuthorizedClientRefresher;
+import org.example.webservice.security.RedisOAuth2AuthorizedClientService;
+import org.example.webservice.security.SessionTrackingAuthorizedClientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+
+/**
+ * Хранилище OAuth2 authorized clients (токены пользователей для вызова backend-сервисов).
+ * authorized-client.store: redis (по умолчанию) - общее для узлов, с фоновым обновлением токенов;
+ * memory - InMemoryOAuth2AuthorizedClientService из автоконфигурации Spring Boot, только для одного узла.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "authorized-client", name = "store", havingValue = "redis", matchIfMissing = true)
+public class AuthorizedClientStoreConfig {
+
+    @Bean
+    public RedisOAuth2AuthorizedClientService authorizedClientService(
+            StringRedisTemplate redisTemplate,
+            ClientRegistrationRepository clientRegistrationRepository,
+            @Value("${authorized-client.refresh-ahead:60s}") Duration refreshAhead,
+            @Value("${authorized-client.refresh-jitter:30s}") Duration refreshJitter,
+            @Value("${authorized-client.ttl:12h}") Duration ttl,
+            SessionRepository<?> sessionRepository) {
+        // Истекшую сессию репозиторий не находит
+        return new RedisOAuth2AuthorizedClientService(redisTemplate, clientRegistrationRepository,
+                refreshAhead, refreshJitter, ttl, sessionId -> sessionRepository.findById(sessionId) != null);
+    }
+
+    // Заменяет репозиторий из автоконфигурации: запоминает сессии, где используется клиент,
+    // и при выходе удаляет клиента только вместе с последней сессией пользователя
+    @Bean
+    public SessionTrackingAuthorizedClientRepository authorizedClientRepository(
+            RedisOAuth2AuthorizedClientService authorizedClientService) {
+        return new SessionTrackingAuthorizedClientRepository(authorizedClientService);
+    }
+
+    @Bean
+    public AuthorizedClientRefresher authorizedClientRefresher(
+            RedisOAuth2AuthorizedClientService authorizedClientService,
+            ClientRegistrationRepository clientRegistrationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${authorized-client.refresh-ahead:60s}") Duration refreshAhead,
+            @Value("${authorized-client.refresh-jitter:30s}") Duration refreshJitter,
+            @Value("${authorized-client.refresh-interval:5s}") Duration interval,
+            @Value("${authorized-client.refresh-batch-size:100}") int batchSize,
+            @Value("${authorized-client.retry-delay:15s}") Duration retryDelay) {
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager =
+                new AuthorizedClientServiceOAuth2AuthorizedClientManager(clientRegistrationRepository, authorizedClientService);
+        // Refresh provider обновляет токен, только если до exp осталось меньше clockSkew:
+        // запись из расписания берется не раньше exp - refresh-ahead - refresh-jitter
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .refreshToken(refreshToken -> refreshToken.clockSkew(refreshAhead.plus(refreshJitter).plus(interval)))
+                .build());
+        return new AuthorizedClientRefresher(authorizedClientService, manager, meterRegistry, interval, batchSize, retryDelay);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.webservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.example.webservice.live.LiveUpdateHub;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Одна подписка узла web-service на изменения счетов и депозитов, которые публикует
+ * deposit-service; события раздаются открытым SSE-соединениям через LiveUpdateHub.
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "live-updates", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LiveUpdatesConfig {
+
+    static final ChannelTopic TOPIC = new ChannelTopic("deposit-service:changes");
+
+    private final LiveUpdateHub liveUpdateHub;
+
+    @Bean
+    public RedisMessageListenerContainer liveUpdatesListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+                liveUpdateHub.onChange(new String(message.getBody(), StandardCharsets.UTF_8)), TOPIC);
+        return container;
+    }
+}
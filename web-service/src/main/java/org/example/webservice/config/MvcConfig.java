@@ -1,8 +1,13 @@
 package org.example.webservice.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.time.Duration;
 
 @Configuration
 public class MvcConfig implements WebMvcConfigurer {
@@ -14,4 +19,22 @@ public class MvcConfig implements WebMvcConfigurer {
         registry.addViewController("/auth/login").setViewName("forward:/login.html");
         registry.addViewController("/auth/register").setViewName("forward:/register.html");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Файлы с хешем содержимого в имени (генерируются при сборке) не меняются никогда.
+        // EncodedResourceResolver отдает готовые .br/.gz по Accept-Encoding - сжатия на запрос нет
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations("classpath:/static/assets/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        // Страницы и файлы без хеша - с проверкой актуальности по Last-Modified
+        registry.addResourceHandler("/**")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+}
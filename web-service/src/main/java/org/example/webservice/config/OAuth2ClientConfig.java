@@ -0,0 +1,47 @@
+package org.example.webservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.DefaultOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+
+@Configuration
+public class OAuth2ClientConfig {
+
+    // Токен пользователя для вызовов backend-сервисов; истекший обновляется по refresh token
+    // в потоке запроса - обычно до этого его заранее обновляет AuthorizedClientRefresher
+    @Bean
+    public OAuth2AuthorizedClientManager authorizedClientManager(ClientRegistrationRepository clientRegistrationRepository,
+                                                                 OAuth2AuthorizedClientRepository authorizedClientRepository) {
+        DefaultOAuth2AuthorizedClientManager manager =
+                new DefaultOAuth2AuthorizedClientManager(clientRegistrationRepository, authorizedClientRepository);
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .authorizationCode()
+                .refreshToken()
+                .build());
+        return manager;
+    }
+
+    // ID token при входе проверяется по алгоритму подписи auth-service (auth.signing.algorithm:
+    // RS256 или ES256, то же свойство, что у auth-service). По умолчанию Spring принимает только RS256,
+    // и с ES256 вход бы не работал; jws-algorithms resource server'а на oauth2Login не влияет
+    @Bean
+    public JwtDecoderFactory<ClientRegistration> idTokenDecoderFactory(
+            @Value("${auth.signing.algorithm:RS256}") String algorithm) {
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.from(algorithm);
+        if (signatureAlgorithm == null) {
+            throw new IllegalArgumentException("Unsupported ID token signature algorithm: " + algorithm);
+        }
+        OidcIdTokenDecoderFactory factory = new OidcIdTokenDecoderFactory();
+        factory.setJwsAlgorithmResolver(clientRegistration -> signatureAlgorithm);
+        return factory;
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.webservice.config;
 
+import org.example.webservice.security.SessionTrackingAuthorizedClientRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -11,11 +13,12 @@ import org.springframework.security.web.SecurityFilterChain;
 public class WebSecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   ObjectProvider<SessionTrackingAuthorizedClientRepository> authorizedClientRepository) throws Exception {
         http
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/", "/index.html", "/login.html", "/register.html",
-                                "/css/**", "/js/**", "/images/**", "/auth/register",
+                                "/css/**", "/js/**", "/assets/**", "/images/**", "/auth/register",
                                 "/actuator/**", "/error").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -25,9 +28,13 @@ public class WebSecurityConfig {
                         .failureUrl("/login.html?error=true")
                 )
                 .logout(logout -> logout
+                        // Токены вышедшего пользователя (если это была его последняя сессия)
+                        // не должны обновляться в фоне; in-memory хранилище в фоне не обновляет
+                        .addLogoutHandler((request, response, authentication) -> authorizedClientRepository
+                                .ifAvailable(repository -> repository.logout(request, response, authentication)))
                         .logoutSuccessUrl("/index.html")
                         .invalidateHttpSession(true)
-                        .deleteCookies("JSESSIONID")
+                        .deleteCookies("SESSION") // cookie Spring Session
                 )
                 .csrf(csrf -> csrf.disable()); // Временно отключите CSRF для отладки
 
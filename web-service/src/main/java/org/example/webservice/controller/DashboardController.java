@@ -2,15 +2,17 @@ package org.example.webservice.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.webservice.dto.DashboardData;
+import org.example.webservice.service.AccessTokenService;
+import org.example.webservice.service.DashboardService;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-
-import java.util.HashMap;
-import java.util.Map;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 @Controller
 @RequestMapping("/dashboard")
@@ -18,33 +20,29 @@ import java.util.Map;
 @Slf4j
 public class DashboardController {
 
-    // Класс AuthService был удален, инъекция больше не нужна.
+    private final AccessTokenService accessTokenService;
+    private final DashboardService dashboardService;
 
+    // Spring Security гарантирует, что здесь будет аутентифицированный пользователь.
+    // Страница статическая, данные она загружает сама через /dashboard/data
     @GetMapping
-    // Spring Security гарантирует, что здесь будет аутентифицированный пользователь
-    public String dashboard(Model model, @AuthenticationPrincipal OidcUser principal) {
+    public String dashboard() {
+        return "forward:/dashboard.html";
+    }
+
+    @GetMapping(value = "/data", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public DashboardData data(@AuthenticationPrincipal OidcUser principal,
+                              OAuth2AuthenticationToken authentication) {
 
         // Получаем имя пользователя из токена (claim 'preferred_username' или 'sub')
-        // Используем getPreferredUsername, если Auth Server его предоставляет, иначе getSubject
         String username = principal.getClaimAsString("preferred_username");
         if (username == null) {
             username = principal.getSubject();
         }
 
-        // Добавляем информацию для dashboard
-        model.addAttribute("title", "Личный кабинет");
-        model.addAttribute("username", username);
-        // model.addAttribute("isAuthenticated", true); - больше не нужно
-
-        // Статус сервисов (можно расширить)
-        Map<String, String> servicesStatus = new HashMap<>();
-        servicesStatus.put("Auth Service", "✅ Online");
-        servicesStatus.put("Deposit Service", "⏳ Starting");
-        servicesStatus.put("Transaction Service", "⏳ Starting");
-
-        model.addAttribute("servicesStatus", servicesStatus);
-        model.addAttribute("isStubMode", true);
-
-        return "dashboard";
+        // Токен берем в потоке запроса, дальше вызовы сервисов идут параллельно
+        String accessToken = accessTokenService.getAccessToken(authentication);
+        return dashboardService.load(accessToken, principal.getSubject(), username);
     }
-}
\ No newline at end of file
+}
@@ -1,67 +1,60 @@
 package org.example.webservice.controller;
 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.webservice.cache.DepositCache;
+import org.example.webservice.dto.DepositsData;
+import org.example.webservice.service.AccessTokenService;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.client.RestClientException;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 @Controller
 @RequestMapping("/deposits")
-// Убрана инъекция AuthService
+@RequiredArgsConstructor
+@Slf4j
 public class DepositController {
 
+    private final AccessTokenService accessTokenService;
+    private final DepositCache depositCache;
+
+    // Страница статическая, список она загружает сама через /deposits/data
     @GetMapping
-    public String deposits(Model model, @AuthenticationPrincipal OidcUser principal) {
+    public String deposits() {
+        return "forward:/deposits.html";
+    }
+
+    @GetMapping(value = "/data", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public DepositsData data(@AuthenticationPrincipal OidcUser principal,
+                             OAuth2AuthenticationToken authentication) {
 
         String username = principal.getClaimAsString("preferred_username");
         if (username == null) {
             username = principal.getSubject();
         }
 
-        // ЗАГЛУШКА: вместо реальных данных из deposit-service
-        List<Map<String, Object>> stubDeposits = createStubDeposits();
-
-        model.addAttribute("title", "Мои депозиты");
-        model.addAttribute("username", username);
-        model.addAttribute("deposits", stubDeposits);
-        model.addAttribute("message", "Депозитный сервис временно недоступен. Отображаются тестовые данные.");
-        model.addAttribute("serviceStatus", "stub");
-
-        return "deposits";
-    }
-
-    private List<Map<String, Object>> createStubDeposits() {
-        // ... (метод без изменений)
-        List<Map<String, Object>> deposits = new ArrayList<>();
-
-        deposits.add(Map.of(
-                "id", "DEP001",
-                "type", "Накопительный",
-                "amount", 50000.0,
-                "interestRate", 5.5,
-                "startDate", "2024-01-15",
-                "endDate", "2025-01-15",
-                "status", "ACTIVE",
-                "currency", "RUB"
-        ));
-
-        deposits.add(Map.of(
-                "id", "DEP002",
-                "type", "Срочный",
-                "amount", 100000.0,
-                "interestRate", 7.0,
-                "startDate", "2024-02-01",
-                "endDate", "2026-02-01",
-                "status", "ACTIVE",
-                "currency", "RUB"
-        ));
-
-        return deposits;
+        try {
+            String accessToken = accessTokenService.getAccessToken(authentication);
+            // 404 от deposit-service (депозитов еще нет) кэш отдает как пустой список
+            DepositCache.Deposits deposits = depositCache.get(accessToken, principal.getSubject());
+
+            if (deposits.stale()) {
+                return new DepositsData(username, deposits.deposits(), "stale",
+                        "Данные могут быть неактуальны, обновляются.");
+            }
+            return new DepositsData(username, deposits.deposits(), "online", null);
+        } catch (RestClientException e) {
+            log.warn("Deposit service unavailable: {}", e.getMessage());
+            return new DepositsData(username, List.of(), "unavailable", "Депозитный сервис временно недоступен.");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package org.example.webservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.webservice.live.LiveUpdateHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequiredArgsConstructor
+public class LiveUpdatesController {
+
+    private final LiveUpdateHub liveUpdateHub;
+
+    // Поток событий account/deposit текущего пользователя; EventSource сам переподключается.
+    // Сверх лимита - 429 до открытия потока: на ответ не 200 EventSource не переподключается,
+    // а пустой поток 200 он считал бы обрывом и переподключался бы бесконечно
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@AuthenticationPrincipal OidcUser principal) {
+        SseEmitter emitter = liveUpdateHub.subscribe(principal.getSubject());
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
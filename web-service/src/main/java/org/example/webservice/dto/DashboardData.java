@@ -0,0 +1,21 @@
+package org.example.webservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ответ GET /dashboard/data: страница dashboard.html рисует его в app.js,
+ * degraded-блоки показываются как недоступные, остальные - с данными.
+ */
+@Getter
+@AllArgsConstructor
+public class DashboardData {
+    private final String username;
+    private final DashboardSection<UserResponse> profile;
+    private final DashboardSection<Map<String, Object>> account;
+    private final DashboardSection<List<Map<String, Object>>> deposits;
+    private final DashboardSection<Map<String, Object>> transactionStats;
+}
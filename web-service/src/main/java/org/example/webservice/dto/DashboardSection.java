@@ -0,0 +1,26 @@
+package org.example.webservice.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Блок страницы с данными одного сервиса. Если сервис не ответил вовремя,
+ * блок помечается degraded и показывается без данных, остальная страница рендерится.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class DashboardSection<T> {
+
+    private final T data;
+    private final boolean degraded;
+    private final String message;
+
+    public static <T> DashboardSection<T> ok(T data) {
+        return new DashboardSection<>(data, false, null);
+    }
+
+    public static <T> DashboardSection<T> degraded(String message) {
+        return new DashboardSection<>(null, true, message);
+    }
+}
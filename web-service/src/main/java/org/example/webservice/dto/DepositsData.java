@@ -0,0 +1,20 @@
+package org.example.webservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ответ GET /deposits/data для страницы deposits.html.
+ * serviceStatus: online, stale (данные из кэша, обновляются) или unavailable.
+ */
+@Getter
+@AllArgsConstructor
+public class DepositsData {
+    private final String username;
+    private final List<Map<String, Object>> deposits;
+    private final String serviceStatus;
+    private final String message;
+}
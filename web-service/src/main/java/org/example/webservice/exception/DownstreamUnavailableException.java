@@ -0,0 +1,15 @@
+package org.example.webservice.exception;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Вызов сервиса не выполнялся или был прерван: открыт circuit breaker, переполнен bulkhead
+ * или истек time limiter. Наследует RestClientException, чтобы обрабатываться там же,
+ * где и ошибки самого HTTP-вызова.
+ */
+public class DownstreamUnavailableException extends RestClientException {
+
+    public DownstreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
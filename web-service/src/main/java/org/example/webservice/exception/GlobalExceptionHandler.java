@@ -0,0 +1,27 @@
+package org.example.webservice.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.client.ClientAuthorizationRequiredException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+@RestControllerAdvice
+@Slf4j
+public class GlobalExceptionHandler {
+
+    /**
+     * Токенов пользователя нет (удалены или отозваны), нужен повторный вход. JSON-endpoint'ы
+     * вызываются через fetch, который не пройдет редирект на auth-service, поэтому вместо
+     * редиректа - 401 с адресом входа; app.js переходит по нему сам.
+     */
+    @ExceptionHandler(ClientAuthorizationRequiredException.class)
+    public ResponseEntity<Map<String, String>> handleClientAuthorizationRequired(ClientAuthorizationRequiredException e) {
+        log.debug("Authorization required for client {}", e.getClientRegistrationId());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("login", "/oauth2/authorization/" + e.getClientRegistrationId()));
+    }
+}
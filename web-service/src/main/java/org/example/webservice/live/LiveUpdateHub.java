@@ -0,0 +1,154 @@
+package org.example.webservice.live;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.webservice.cache.DepositCache;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SSE-соединения вкладок браузера по пользователям. События deposit-service приходят
+ * через одну подписку на узел (LiveUpdatesConfig) и раздаются всем вкладкам владельца.
+ */
+@Component
+@Slf4j
+public class LiveUpdateHub implements DisposableBean {
+
+    private final ObjectMapper objectMapper;
+    private final DepositCache depositCache;
+    private final long emitterTimeoutMillis;
+    private final int maxConnectionsPerUser;
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ScheduledExecutorService heartbeat;
+
+    public LiveUpdateHub(ObjectMapper objectMapper,
+                         DepositCache depositCache,
+                         MeterRegistry meterRegistry,
+                         @Value("${live-updates.emitter-timeout:30m}") Duration emitterTimeout,
+                         @Value("${live-updates.heartbeat-interval:25s}") Duration heartbeatInterval,
+                         @Value("${live-updates.max-connections-per-user:10}") int maxConnectionsPerUser) {
+        this.objectMapper = objectMapper;
+        this.depositCache = depositCache;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+
+        Gauge.builder("web.live.connections", connections::get)
+                .description("Open SSE connections")
+                .register(meterRegistry);
+
+        // Комментарий раз в интервал не дает прокси закрыть простаивающее соединение
+        // и обнаруживает закрытые вкладки
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-updates-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = heartbeatInterval.toMillis();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * null - у пользователя уже max-connections-per-user потоков.
+     */
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        AtomicBoolean accepted = new AtomicBoolean();
+        emitters.compute(userId, (key, userEmitters) -> {
+            Set<SseEmitter> result = userEmitters != null ? userEmitters : new CopyOnWriteArraySet<>();
+            if (result.size() < maxConnectionsPerUser) {
+                result.add(emitter);
+                connections.incrementAndGet();
+                accepted.set(true);
+            }
+            return result.isEmpty() ? null : result;
+        });
+        if (!accepted.get()) {
+            return null;
+        }
+
+        Runnable remove = () -> remove(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    /**
+     * Сообщение из канала deposit-service:changes.
+     */
+    public void onChange(String message) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(message);
+        } catch (IOException e) {
+            log.warn("Malformed change event: {}", e.getMessage());
+            return;
+        }
+        String clientId = event.path("clientId").asText(null);
+        String type = event.path("type").asText("change");
+        if (clientId == null) {
+            return;
+        }
+        if ("deposit".equals(type)) {
+            depositCache.evict(clientId);
+        }
+
+        Set<SseEmitter> userEmitters = emitters.get(clientId);
+        if (userEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : userEmitters) {
+            try {
+                emitter.send(SseEmitter.event().name(type).data(message, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                remove(clientId, emitter);
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        emitters.forEach((userId, userEmitters) -> {
+            for (SseEmitter emitter : userEmitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(userId, emitter);
+                }
+            }
+        });
+    }
+
+    private void remove(String userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (key, userEmitters) -> {
+            if (userEmitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        emitters.values().forEach(userEmitters -> userEmitters.forEach(SseEmitter::complete));
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.webservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновое обновление токенов по расписанию из RedisOAuth2AuthorizedClientService,
+ * до истечения access token - запрос пользователя не ждет refresh. Менеджер работает
+ * без HTTP-запроса (AuthorizedClientServiceOAuth2AuthorizedClientManager), обновленный
+ * клиент сохраняется и попадает в расписание заново. Отозванный refresh token (invalid_grant)
+ * менеджер удаляет из хранилища; при других ошибках - повтор через retry-delay.
+ * Клиент, у пользователя которого не осталось живых сессий (вышел или сессии истекли),
+ * не обновляется, а удаляется.
+ */
+@Slf4j
+public class AuthorizedClientRefresher implements DisposableBean {
+
+    private final RedisOAuth2AuthorizedClientService authorizedClientService;
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final ScheduledExecutorService scheduler;
+    private final Counter refreshed;
+    private final Counter failed;
+    private final Counter noSession;
+
+    public AuthorizedClientRefresher(RedisOAuth2AuthorizedClientService authorizedClientService,
+                                     OAuth2AuthorizedClientManager authorizedClientManager,
+                                     MeterRegistry meterRegistry,
+                                     Duration interval,
+                                     int batchSize,
+                                     Duration retryDelay) {
+        this.authorizedClientService = authorizedClientService;
+        this.authorizedClientManager = authorizedClientManager;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.refreshed = Counter.builder("web.oauth2.token.refresh")
+                .description("Background access token refreshes")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failed = Counter.builder("web.oauth2.token.refresh")
+                .description("Background access token refreshes")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.noSession = Counter.builder("web.oauth2.token.refresh")
+                .description("Background access token refreshes")
+                .tag("result", "no-session")
+                .register(meterRegistry);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "authorized-client-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshDue, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshDue() {
+        List<RedisOAuth2AuthorizedClientService.RefreshTask> tasks;
+        try {
+            tasks = authorizedClientService.claimDueRefreshes(Instant.now(), batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read token refresh schedule: {}", e.getMessage());
+            return;
+        }
+        for (RedisOAuth2AuthorizedClientService.RefreshTask task : tasks) {
+            refresh(task);
+        }
+    }
+
+    private void refresh(RedisOAuth2AuthorizedClientService.RefreshTask task) {
+        try {
+            if (!authorizedClientService.hasLiveSession(task.clientRegistrationId(), task.principalName())) {
+                authorizedClientService.removeAuthorizedClient(task.clientRegistrationId(), task.principalName());
+                noSession.increment();
+                return;
+            }
+            OAuth2AuthorizedClient authorizedClient = authorizedClientManager.authorize(OAuth2AuthorizeRequest
+                    .withClientRegistrationId(task.clientRegistrationId())
+                    .principal(task.principalName())
+                    .build());
+            if (authorizedClient != null) {
+                // Если токен уже обновил другой путь, клиент не сохранялся - ставим в расписание сами
+                authorizedClientService.scheduleRefresh(authorizedClient);
+                refreshed.increment();
+            }
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Token refresh for {} failed: {}", task.principalName(), e.getMessage());
+            try {
+                if (authorizedClientService.loadAuthorizedClient(task.clientRegistrationId(), task.principalName()) != null) {
+                    authorizedClientService.scheduleRefresh(task.clientRegistrationId(), task.principalName(),
+                            Instant.now().plus(retryDelay));
+                }
+            } catch (RuntimeException retryError) {
+                log.warn("Failed to reschedule token refresh for {}: {}", task.principalName(), retryError.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,250 @@
+package org.example.webservice.security;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Authorized clients (access и refresh token пользователя) в Redis, общие для всех узлов web-service.
+ * Клиент - hash с токенами, TTL по сроку refresh token. Для клиентов с refresh token ведется
+ * расписание обновления (sorted set, score - время обновления): за refresh-ahead до exp
+ * минус случайная задержка до refresh-jitter, чтобы обновления не приходились на один момент.
+ * Клиент один на пользователя и общий для всех его сессий (браузеров, устройств), поэтому
+ * ведется множество HTTP-сессий, в которых он использовался. Выход из одной сессии и фоновое
+ * обновление удаляют клиента, только когда живых сессий пользователя не осталось.
+ */
+public class RedisOAuth2AuthorizedClientService implements OAuth2AuthorizedClientService {
+
+    private static final String CLIENT_KEY = "web-service:oauth2:authorized-client:";
+    private static final String REFRESH_SCHEDULE_KEY = "web-service:oauth2:authorized-client-refresh";
+    private static final String SESSIONS_KEY = "web-service:oauth2:authorized-client-sessions:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ClientRegistrationRepository clientRegistrationRepository;
+    private final Duration refreshAhead;
+    private final Duration refreshJitter;
+    private final Duration ttl;
+    private final Predicate<String> sessionExists;
+
+    public RedisOAuth2AuthorizedClientService(StringRedisTemplate redisTemplate,
+                                              ClientRegistrationRepository clientRegistrationRepository,
+                                              Duration refreshAhead,
+                                              Duration refreshJitter,
+                                              Duration ttl,
+                                              Predicate<String> sessionExists) {
+        this.redisTemplate = redisTemplate;
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        this.refreshAhead = refreshAhead;
+        this.refreshJitter = refreshJitter;
+        this.ttl = ttl;
+        this.sessionExists = sessionExists;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId, String principalName) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(clientKey(clientRegistrationId, principalName));
+        if (!fields.containsKey("access.value")) {
+            return null;
+        }
+        ClientRegistration clientRegistration = clientRegistrationRepository.findByRegistrationId(clientRegistrationId);
+        if (clientRegistration == null) {
+            return null;
+        }
+
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(
+                OAuth2AccessToken.TokenType.BEARER,
+                (String) fields.get("access.value"),
+                instant(fields.get("access.iat")),
+                instant(fields.get("access.exp")),
+                fields.containsKey("access.scopes")
+                        ? Set.of(((String) fields.get("access.scopes")).split(" "))
+                        : Set.of());
+        OAuth2RefreshToken refreshToken = fields.containsKey("refresh.value")
+                ? new OAuth2RefreshToken((String) fields.get("refresh.value"),
+                        instant(fields.get("refresh.iat")), instant(fields.get("refresh.exp")))
+                : null;
+        return (T) new OAuth2AuthorizedClient(clientRegistration, principalName, accessToken, refreshToken);
+    }
+
+    @Override
+    public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+        Instant now = Instant.now();
+        OAuth2AccessToken accessToken = authorizedClient.getAccessToken();
+        OAuth2RefreshToken refreshToken = authorizedClient.getRefreshToken();
+
+        Map<String, String> fields = new HashMap<>();
+        fields.put("access.value", accessToken.getTokenValue());
+        putInstant(fields, "access.iat", accessToken.getIssuedAt());
+        putInstant(fields, "access.exp", accessToken.getExpiresAt());
+        if (!accessToken.getScopes().isEmpty()) {
+            fields.put("access.scopes", String.join(" ", accessToken.getScopes()));
+        }
+        Instant expiresAt = accessToken.getExpiresAt();
+        if (refreshToken != null) {
+            fields.put("refresh.value", refreshToken.getTokenValue());
+            putInstant(fields, "refresh.iat", refreshToken.getIssuedAt());
+            putInstant(fields, "refresh.exp", refreshToken.getExpiresAt());
+            expiresAt = refreshToken.getExpiresAt();
+        }
+        // Без срока у токена (или у refresh token) - хранится ttl
+        Duration keyTtl = expiresAt != null && expiresAt.isAfter(now) ? Duration.between(now, expiresAt) : ttl;
+
+        String registrationId = authorizedClient.getClientRegistration().getRegistrationId();
+        String principalName = authorizedClient.getPrincipalName();
+        String key = clientKey(registrationId, principalName);
+        Instant refreshAt = refreshToken != null ? refreshTime(accessToken) : null;
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            public List<Object> execute(RedisOperations operations) {
+                operations.multi();
+                operations.delete(key);
+                operations.opsForHash().putAll(key, fields);
+                operations.expire(key, keyTtl);
+                if (refreshAt != null) {
+                    operations.opsForZSet().add(REFRESH_SCHEDULE_KEY, member(registrationId, principalName), refreshAt.toEpochMilli());
+                } else {
+                    operations.opsForZSet().remove(REFRESH_SCHEDULE_KEY, member(registrationId, principalName));
+                }
+                return operations.exec();
+            }
+        });
+    }
+
+    @Override
+    public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
+        redisTemplate.delete(List.of(clientKey(clientRegistrationId, principalName), sessionsKey(clientRegistrationId, principalName)));
+        redisTemplate.opsForZSet().remove(REFRESH_SCHEDULE_KEY, member(clientRegistrationId, principalName));
+    }
+
+    /**
+     * Клиент используется в сессии sessionId (score - время последнего использования).
+     */
+    public void addSession(String clientRegistrationId, String principalName, String sessionId) {
+        String key = sessionsKey(clientRegistrationId, principalName);
+        redisTemplate.opsForZSet().add(key, sessionId, Instant.now().toEpochMilli());
+        redisTemplate.expire(key, ttl);
+    }
+
+    // Смена id сессии при входе (защита от session fixation)
+    public void replaceSession(String clientRegistrationId, String principalName, String oldSessionId, String newSessionId) {
+        redisTemplate.opsForZSet().remove(sessionsKey(clientRegistrationId, principalName), oldSessionId);
+        addSession(clientRegistrationId, principalName, newSessionId);
+    }
+
+    /**
+     * Выход из сессии: клиент удаляется, только если других живых сессий у пользователя нет.
+     */
+    public void endSession(String clientRegistrationId, String principalName, String sessionId) {
+        redisTemplate.opsForZSet().remove(sessionsKey(clientRegistrationId, principalName), sessionId);
+        if (!hasLiveSession(clientRegistrationId, principalName)) {
+            removeAuthorizedClient(clientRegistrationId, principalName);
+        }
+    }
+
+    /**
+     * Есть ли у пользователя живая HTTP-сессия, где использовался клиент. Истекшие сессии
+     * убираются из множества по пути.
+     */
+    public boolean hasLiveSession(String clientRegistrationId, String principalName) {
+        String key = sessionsKey(clientRegistrationId, principalName);
+        Set<String> sessionIds = redisTemplate.opsForZSet().range(key, 0, -1);
+        if (sessionIds == null) {
+            return false;
+        }
+        boolean live = false;
+        for (String sessionId : sessionIds) {
+            if (sessionExists.test(sessionId)) {
+                live = true;
+            } else {
+                redisTemplate.opsForZSet().remove(key, sessionId);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Забирает клиентов, которым пора обновить токен. Запись удаляется из расписания
+     * ZREM'ом, и обрабатывает ее только узел, чей ZREM ее удалил.
+     */
+    public List<RefreshTask> claimDueRefreshes(Instant now, int limit) {
+        Set<String> due = redisTemplate.opsForZSet()
+                .rangeByScore(REFRESH_SCHEDULE_KEY, 0, now.toEpochMilli(), 0, limit);
+        List<RefreshTask> claimed = new ArrayList<>();
+        if (due == null) {
+            return claimed;
+        }
+        for (String member : due) {
+            Long removed = redisTemplate.opsForZSet().remove(REFRESH_SCHEDULE_KEY, member);
+            int separator = member.indexOf(':');
+            if (removed != null && removed > 0 && separator > 0) {
+                claimed.add(new RefreshTask(member.substring(0, separator), member.substring(separator + 1)));
+            }
+        }
+        return claimed;
+    }
+
+    public void scheduleRefresh(String clientRegistrationId, String principalName, Instant at) {
+        redisTemplate.opsForZSet().add(REFRESH_SCHEDULE_KEY, member(clientRegistrationId, principalName), at.toEpochMilli());
+    }
+
+    public void scheduleRefresh(OAuth2AuthorizedClient authorizedClient) {
+        if (authorizedClient.getRefreshToken() != null) {
+            scheduleRefresh(authorizedClient.getClientRegistration().getRegistrationId(),
+                    authorizedClient.getPrincipalName(), refreshTime(authorizedClient.getAccessToken()));
+        }
+    }
+
+    private Instant refreshTime(OAuth2AccessToken accessToken) {
+        Instant expiresAt = accessToken.getExpiresAt() != null ? accessToken.getExpiresAt() : Instant.now().plus(ttl);
+        long jitterMillis = refreshJitter.toMillis() > 0
+                ? ThreadLocalRandom.current().nextLong(refreshJitter.toMillis())
+                : 0;
+        return expiresAt.minus(refreshAhead).minusMillis(jitterMillis);
+    }
+
+    private static String clientKey(String clientRegistrationId, String principalName) {
+        return CLIENT_KEY + member(clientRegistrationId, principalName);
+    }
+
+    private static String sessionsKey(String clientRegistrationId, String principalName) {
+        return SESSIONS_KEY + member(clientRegistrationId, principalName);
+    }
+
+    // registrationId идет первым и не содержит ':', поэтому разбор по первому ':' однозначен
+    private static String member(String clientRegistrationId, String principalName) {
+        return clientRegistrationId + ":" + principalName;
+    }
+
+    private static void putInstant(Map<String, String> fields, String name, Instant value) {
+        if (value != null) {
+            fields.put(name, Long.toString(value.toEpochMilli()));
+        }
+    }
+
+    private static Instant instant(Object value) {
+        return StringUtils.hasText((String) value) ? Instant.ofEpochMilli(Long.parseLong((String) value)) : null;
+    }
+
+    public record RefreshTask(String clientRegistrationId, String principalName) {
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.webservice.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.web.AuthenticatedPrincipalOAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepository;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.security.web.authentication.session.SessionFixationProtectionEvent;
+
+/**
+ * Репозиторий authorized clients для запросов пользователя (логин и получение токена):
+ * то же, что AuthenticatedPrincipalOAuth2AuthorizedClientRepository, но запоминает HTTP-сессии,
+ * в которых используется клиент. Он же обрабатывает выход: клиент удаляется, только если
+ * у пользователя не осталось других живых сессий.
+ */
+public class SessionTrackingAuthorizedClientRepository implements OAuth2AuthorizedClientRepository, LogoutHandler {
+
+    private final RedisOAuth2AuthorizedClientService authorizedClientService;
+    private final OAuth2AuthorizedClientRepository delegate;
+
+    public SessionTrackingAuthorizedClientRepository(RedisOAuth2AuthorizedClientService authorizedClientService) {
+        this.authorizedClientService = authorizedClientService;
+        this.delegate = new AuthenticatedPrincipalOAuth2AuthorizedClientRepository(authorizedClientService);
+    }
+
+    @Override
+    public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId, Authentication principal,
+                                                                     HttpServletRequest request) {
+        T authorizedClient = delegate.loadAuthorizedClient(clientRegistrationId, principal, request);
+        if (authorizedClient != null) {
+            addSession(clientRegistrationId, principal, request);
+        }
+        return authorizedClient;
+    }
+
+    @Override
+    public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal,
+                                     HttpServletRequest request, HttpServletResponse response) {
+        delegate.saveAuthorizedClient(authorizedClient, principal, request, response);
+        addSession(authorizedClient.getClientRegistration().getRegistrationId(), principal, request);
+    }
+
+    @Override
+    public void removeAuthorizedClient(String clientRegistrationId, Authentication principal,
+                                       HttpServletRequest request, HttpServletResponse response) {
+        delegate.removeAuthorizedClient(clientRegistrationId, principal, request, response);
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        HttpSession session = request.getSession(false);
+        if (authentication instanceof OAuth2AuthenticationToken token && session != null) {
+            authorizedClientService.endSession(token.getAuthorizedClientRegistrationId(), token.getName(), session.getId());
+        }
+    }
+
+    // Клиент сохраняется при входе до смены id сессии - переносим отметку на новый id
+    @EventListener
+    public void onSessionIdChanged(SessionFixationProtectionEvent event) {
+        if (event.getAuthentication() instanceof OAuth2AuthenticationToken token) {
+            authorizedClientService.replaceSession(token.getAuthorizedClientRegistrationId(), token.getName(),
+                    event.getOldSessionId(), event.getNewSessionId());
+        }
+    }
+
+    // Клиенты анонимного пользователя хранятся в самой сессии, а не в Redis
+    private void addSession(String clientRegistrationId, Authentication principal, HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (principal instanceof OAuth2AuthenticationToken && session != null) {
+            authorizedClientService.addSession(clientRegistrationId, principal.getName(), session.getId());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.webservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class AccessTokenService {
+
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
+
+    /**
+     * Вызывать в потоке запроса: менеджер берет текущий запрос из RequestContextHolder.
+     */
+    public String getAccessToken(OAuth2AuthenticationToken authentication) {
+        OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest
+                .withClientRegistrationId(authentication.getAuthorizedClientRegistrationId())
+                .principal(authentication)
+                .build();
+        OAuth2AuthorizedClient authorizedClient = authorizedClientManager.authorize(authorizeRequest);
+        if (authorizedClient == null) {
+            throw new IllegalStateException("No authorized client for user " + authentication.getName());
+        }
+        return authorizedClient.getAccessToken().getTokenValue();
+    }
+}
@@ -1,31 +1,119 @@
 package org.example.webservice.service;
 
-import lombok.RequiredArgsConstructor;
 import org.example.webservice.dto.AuthRequest;
 import org.example.webservice.dto.AuthResponse;
 import org.example.webservice.dto.UserResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
 @Service
-@RequiredArgsConstructor
 public class ApiService {
 
-    private final RestTemplate restTemplate;
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> LIST_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private final DownstreamGuard downstreamGuard;
 
-    private static final String AUTH_SERVICE_URL = "http://localhost:8081/auth";
+    // По умолчанию - имя сервиса в Eureka, экземпляр выбирает балансировщик.
+    // Явный адрес (с портом, доменом или localhost) вызывается напрямую, без Eureka
+    private final String authServiceUrl;
+    private final String depositServiceUrl;
+    private final String transactionServiceUrl;
+    private final RestTemplate authService;
+    private final RestTemplate depositService;
+    private final RestTemplate transactionService;
+
+    public ApiService(@Qualifier("restTemplate") RestTemplate loadBalancedRestTemplate,
+                      @Qualifier("directRestTemplate") RestTemplate directRestTemplate,
+                      DownstreamGuard downstreamGuard,
+                      @Value("${services.auth-service.url:http://auth-service/auth}") String authServiceUrl,
+                      @Value("${services.deposit-service.url:http://deposit-service/api}") String depositServiceUrl,
+                      @Value("${services.transaction-service.url:http://transaction-service/api}") String transactionServiceUrl) {
+        this.downstreamGuard = downstreamGuard;
+        this.authServiceUrl = authServiceUrl;
+        this.depositServiceUrl = depositServiceUrl;
+        this.transactionServiceUrl = transactionServiceUrl;
+        this.authService = isServiceId(authServiceUrl) ? loadBalancedRestTemplate : directRestTemplate;
+        this.depositService = isServiceId(depositServiceUrl) ? loadBalancedRestTemplate : directRestTemplate;
+        this.transactionService = isServiceId(transactionServiceUrl) ? loadBalancedRestTemplate : directRestTemplate;
+    }
 
     public UserResponse registerUser(AuthRequest authRequest) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         HttpEntity<AuthRequest> entity = new HttpEntity<>(authRequest, headers);
 
-        return restTemplate.postForObject(
-                AUTH_SERVICE_URL + "/register",
+        return downstreamGuard.call("auth-service", () -> authService.postForObject(
+                authServiceUrl + "/register",
                 entity,
                 UserResponse.class
-        );
+        ));
+    }
+
+    // Свой circuit breaker и bulkhead: сбои профиля в кабинете не должны закрывать регистрацию
+    public UserResponse getUserInfo(String accessToken) {
+        return downstreamGuard.call("auth-service-userinfo", () -> authService.exchange(
+                authServiceUrl + "/user/info",
+                HttpMethod.GET,
+                bearer(accessToken),
+                UserResponse.class
+        ).getBody());
+    }
+
+    public Map<String, Object> getAccount(String accessToken, String clientId) {
+        return downstreamGuard.call("deposit-service", () -> depositService.exchange(
+                depositServiceUrl + "/accounts/client/{clientId}",
+                HttpMethod.GET,
+                bearer(accessToken),
+                MAP_TYPE,
+                clientId
+        ).getBody());
     }
 
+    public List<Map<String, Object>> getDeposits(String accessToken, String clientId) {
+        return downstreamGuard.call("deposit-service", () -> depositService.exchange(
+                depositServiceUrl + "/deposits/client/{clientId}",
+                HttpMethod.GET,
+                bearer(accessToken),
+                LIST_TYPE,
+                clientId
+        ).getBody());
+    }
+
+    public Map<String, Object> getTransactionStats(String accessToken, String userId) {
+        return downstreamGuard.call("transaction-service", () -> transactionService.exchange(
+                transactionServiceUrl + "/users/{userId}/transactions/stats",
+                HttpMethod.GET,
+                bearer(accessToken),
+                MAP_TYPE,
+                userId
+        ).getBody());
+    }
+
+    /**
+     * http://deposit-service/api - service id; http://localhost:8082/api, http://deposit.internal/api - адрес.
+     */
+    static boolean isServiceId(String url) {
+        URI uri = URI.create(url);
+        String host = uri.getHost();
+        return host != null && uri.getPort() == -1 && host.indexOf('.') < 0 && host.indexOf(':') < 0
+                && !"localhost".equalsIgnoreCase(host);
+    }
+
+    private static HttpEntity<Void> bearer(String accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        return new HttpEntity<>(headers);
+    }
 }
@@ -0,0 +1,86 @@
+package org.example.webservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.webservice.cache.DepositCache;
+import org.example.webservice.dto.DashboardData;
+import org.example.webservice.dto.DashboardSection;
+import org.example.webservice.dto.UserResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Данные личного кабинета из auth-service, deposit-service и transaction-service.
+ * Вызовы идут параллельно, у каждого свой дедлайн: страница ждет самый медленный вызов,
+ * а не сумму, и не ждет дольше дедлайна. Не ответивший сервис дает degraded-блок.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    private final ApiService apiService;
+    private final DepositCache depositCache;
+    private final Executor backendExecutor;
+    private final Duration callTimeout;
+
+    public DashboardService(ApiService apiService,
+                            DepositCache depositCache,
+                            @Qualifier("backendExecutor") Executor backendExecutor,
+                            @Value("${dashboard.call-timeout:2s}") Duration callTimeout) {
+        this.apiService = apiService;
+        this.depositCache = depositCache;
+        this.backendExecutor = backendExecutor;
+        this.callTimeout = callTimeout;
+    }
+
+    public DashboardData load(String accessToken, String userId, String username) {
+        CompletableFuture<DashboardSection<UserResponse>> profile =
+                call("auth-service", () -> apiService.getUserInfo(accessToken));
+        CompletableFuture<DashboardSection<Map<String, Object>>> account =
+                call("deposit-service", () -> apiService.getAccount(accessToken, userId));
+        CompletableFuture<DashboardSection<List<Map<String, Object>>>> deposits =
+                call("deposit-service", () -> depositCache.get(accessToken, userId).deposits());
+        CompletableFuture<DashboardSection<Map<String, Object>>> transactionStats =
+                call("transaction-service", () -> apiService.getTransactionStats(accessToken, userId));
+
+        // Каждый future завершается не позже своего дедлайна и никогда не завершается ошибкой
+        return new DashboardData(username, profile.join(), account.join(), deposits.join(), transactionStats.join());
+    }
+
+    private <T> CompletableFuture<DashboardSection<T>> call(String service, Supplier<T> supplier) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(supplier, backendExecutor);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        // По дедлайну страница перестает ждать; сам HTTP-вызов ограничен read-timeout клиента
+        return future
+                .orTimeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((data, error) -> {
+                    if (error == null) {
+                        return DashboardSection.ok(data);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    // 404 - данных еще нет (например, счет не открыт), это не отказ сервиса
+                    if (cause instanceof HttpClientErrorException.NotFound) {
+                        return DashboardSection.ok(null);
+                    }
+                    log.warn("Dashboard section from {} degraded: {}", service, cause.toString());
+                    return DashboardSection.degraded(service + " временно недоступен");
+                });
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.webservice.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.webservice.exception.DownstreamUnavailableException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Защита исходящих вызовов, отдельно для каждого сервиса (имя - service id в Eureka):
+ * circuit breaker -> time limiter -> thread-pool bulkhead -> HTTP-вызов.
+ * Вызов выполняется в пуле bulkhead сервиса, поток запроса ждет не дольше resilience.timeout,
+ * поэтому медленный сервис занимает только свой пул, а не потоки Tomcat.
+ * Прервать вызов по таймауту нельзя: поток пула освобождается только по read-timeout
+ * HTTP-клиента, поэтому resilience.timeout по умолчанию равен http-client.read-timeout.
+ * Метрики: resilience4j.circuitbreaker.*, resilience4j.bulkhead.*, resilience4j.timelimiter.*
+ * и web.downstream.rejected{downstream, reason}.
+ */
+@Component
+@Slf4j
+public class DownstreamGuard implements DisposableBean {
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final ThreadPoolBulkheadRegistry bulkheads;
+    private final TimeLimiterRegistry timeLimiters;
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamGuard(MeterRegistry meterRegistry,
+                           @Value("${resilience.timeout:${http-client.read-timeout:3s}}") Duration timeout,
+                           @Value("${resilience.failure-rate-threshold:50}") float failureRateThreshold,
+                           @Value("${resilience.slow-call-threshold:2s}") Duration slowCallThreshold,
+                           @Value("${resilience.sliding-window-size:20}") int slidingWindowSize,
+                           @Value("${resilience.wait-in-open-state:10s}") Duration waitInOpenState,
+                           @Value("${resilience.bulkhead.max-threads:16}") int bulkheadThreads,
+                           @Value("${resilience.bulkhead.queue-capacity:16}") int bulkheadQueueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(10, slidingWindowSize))
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                // 4xx - ошибка запроса, а не сервиса; переполненный bulkhead учитывается отдельно
+                .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+                .build());
+        this.bulkheads = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(bulkheadThreads)
+                .maxThreadPoolSize(bulkheadThreads)
+                .queueCapacity(bulkheadQueueCapacity)
+                .build());
+        this.timeLimiters = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(timeout)
+                // Future bulkhead-а не прерывает поток, отмена ничего бы не дала
+                .cancelRunningFuture(false)
+                .build());
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedThreadPoolBulkheadMetrics.ofThreadPoolBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiters).bindTo(meterRegistry);
+    }
+
+    /**
+     * Ошибки HTTP-вызова пробрасываются как есть; отказ без вызова или по таймауту -
+     * DownstreamUnavailableException.
+     */
+    public <T> T call(String downstream, Supplier<T> supplier) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(downstream);
+        ThreadPoolBulkhead bulkhead = bulkheads.bulkhead(downstream);
+        TimeLimiter timeLimiter = timeLimiters.timeLimiter(downstream);
+        try {
+            return circuitBreaker.executeCallable(() -> timeLimiter.executeFutureSupplier(
+                    () -> bulkhead.executeSupplier(supplier).toCompletableFuture()));
+        } catch (CallNotPermittedException e) {
+            throw rejected(downstream, "circuit-open", e);
+        } catch (BulkheadFullException e) {
+            throw rejected(downstream, "bulkhead-full", e);
+        } catch (TimeoutException e) {
+            throw rejected(downstream, "timeout", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DownstreamUnavailableException(downstream + " call failed", e);
+        }
+    }
+
+    private DownstreamUnavailableException rejected(String downstream, String reason, Exception cause) {
+        Counter.builder("web.downstream.rejected")
+                .description("Downstream calls rejected by circuit breaker, bulkhead or time limiter")
+                .tag("downstream", downstream)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Call to {} rejected: {}", downstream, reason);
+        return new DownstreamUnavailableException(downstream + " временно недоступен", cause);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (ThreadPoolBulkhead bulkhead : bulkheads.getAllBulkheads()) {
+            bulkhead.close();
+        }
+    }
+}
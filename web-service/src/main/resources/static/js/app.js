@@ -13,6 +13,8 @@ function initApplication() {
     initNavigation();
     initUserData();
     initServiceStatus();
+    initPageData();
+    initLiveUpdates();
 
     // Add global error handler
     window.addEventListener('error', handleGlobalError);
@@ -168,8 +170,8 @@ function clearFieldError(input) {
 
 // Notification system
 function initNotifications() {
-    // Auto-hide success alerts after 5 seconds
-    const alerts = document.querySelectorAll('.alert:not(.alert-error)');
+    // Auto-hide success alerts after 5 seconds (hidden ones are shown later by page scripts)
+    const alerts = document.querySelectorAll('.alert:not(.alert-error):not([hidden])');
     alerts.forEach(alert => {
         setTimeout(() => {
             fadeOutElement(alert);
@@ -276,6 +278,11 @@ function initNavigation() {
 
 // User data management
 function initUserData() {
+    // Pages with their own data endpoint set the username from it
+    if (document.querySelector('[data-page-data]')) {
+        return;
+    }
+
     // Try to get username from backend or use fallback
     const usernameElement = document.getElementById('username');
     const welcomeUsernameElement = document.getElementById('welcomeUsername');
@@ -317,7 +324,8 @@ function simulateUserDataLoad() {
 
 // Service status monitoring
 function initServiceStatus() {
-    const serviceStatusElements = document.querySelectorAll('.service-status');
+    // Statuses bound to page data (data-service) are set from the actual backend responses
+    const serviceStatusElements = document.querySelectorAll('.service-status:not([data-service])');
 
     if (serviceStatusElements.length > 0) {
         checkServicesStatus();
@@ -376,6 +384,162 @@ function updateServiceUI(serviceName, status) {
     });
 }
 
+// Page data: the page is static, its data comes as JSON from web-service.
+// A backend that did not answer in time arrives as a degraded section and is shown as unavailable
+const pageRenderers = {
+    '/dashboard/data': renderDashboard,
+    '/deposits/data': renderDeposits
+};
+
+function initPageData() {
+    const page = document.querySelector('[data-page-data]');
+    if (!page) {
+        return;
+    }
+
+    const url = page.dataset.pageData;
+    BankAPI.get(url).then(data => {
+        setUsername(data.username);
+        pageRenderers[url](data);
+    }).catch(error => {
+        // The user's tokens are gone: sign in again (silently while the auth-service session is alive)
+        if (error.status === 401) {
+            window.location.href = (error.body && error.body.login) || '/oauth2/authorization/web-client';
+            return;
+        }
+        showNotification('Не удалось загрузить данные страницы', 'error');
+    });
+}
+
+function setUsername(username) {
+    ['username', 'welcomeUsername'].forEach(id => {
+        const element = document.getElementById(id);
+        if (element && username) element.textContent = username;
+    });
+}
+
+function setField(name, value) {
+    document.querySelectorAll(`[data-field="${name}"]`).forEach(element => {
+        element.textContent = value;
+    });
+}
+
+function renderDashboard(data) {
+    const sections = ['profile', 'account', 'deposits', 'transactionStats'];
+    const degraded = sections.filter(name => data[name] && data[name].degraded);
+    const unavailable = 'Нет данных';
+
+    const account = data.account.data;
+    setField('balance', data.account.degraded ? unavailable
+        : account ? formatCurrency(account.balance, account.currency || 'RUB') : 'Счет не открыт');
+
+    const deposits = data.deposits.data || [];
+    setField('activeDeposits', data.deposits.degraded ? unavailable
+        : deposits.filter(deposit => deposit.status === 'ACTIVE').length);
+
+    const stats = data.transactionStats.data;
+    setField('completedTransactions', data.transactionStats.degraded ? unavailable
+        : stats ? stats.completed_count : 0);
+
+    document.querySelectorAll('[data-section]').forEach(card => {
+        card.classList.toggle('degraded', degraded.includes(card.dataset.section));
+    });
+
+    document.querySelectorAll('[data-service]').forEach(element => {
+        const isDegraded = element.dataset.service.split(' ').some(name => degraded.includes(name));
+        element.className = `service-status ${isDegraded ? 'status-degraded' : 'status-online'}`;
+        element.textContent = isDegraded ? '⚠️ Degraded' : '✅ Online';
+    });
+
+    const alert = document.getElementById('degradedAlert');
+    if (alert && degraded.length > 0) {
+        const messages = new Set(degraded.map(name => data[name].message).filter(Boolean));
+        document.getElementById('degradedMessage').textContent = [...messages].join('. ');
+        alert.hidden = false;
+    }
+}
+
+function renderDeposits(data) {
+    const alert = document.getElementById('depositsMessage');
+    document.getElementById('depositsMessageText').textContent = data.message || '';
+    alert.hidden = !data.message;
+
+    const deposits = data.deposits || [];
+    document.getElementById('depositsEmpty').hidden = data.serviceStatus === 'unavailable' || deposits.length > 0;
+
+    const table = document.getElementById('depositsTable');
+    const body = table.querySelector('tbody');
+    body.replaceChildren(...deposits.map(deposit => {
+        const row = document.createElement('tr');
+        [
+            deposit.id,
+            deposit.depositTypeName,
+            formatCurrency(deposit.amount),
+            deposit.interestRate,
+            deposit.startDate ? formatDate(deposit.startDate) : '',
+            deposit.endDate ? formatDate(deposit.endDate) : '',
+            formatCurrency(deposit.earnedInterest || 0),
+            deposit.status
+        ].forEach(value => {
+            const cell = document.createElement('td');
+            cell.textContent = value ?? '';
+            row.appendChild(cell);
+        });
+        return row;
+    }));
+    table.hidden = deposits.length === 0;
+}
+
+// Live updates: server-sent events with account and deposit changes of the current user
+function initLiveUpdates() {
+    const liveElements = document.querySelectorAll('[data-live]');
+
+    if (liveElements.length === 0 || !window.EventSource) {
+        return;
+    }
+
+    // EventSource reconnects by itself if the connection drops
+    const source = new EventSource('/events');
+
+    source.addEventListener('account', function(event) {
+        const change = JSON.parse(event.data);
+        document.querySelectorAll('[data-live="balance"]').forEach(element => {
+            element.textContent = formatCurrency(change.balance, change.currency || 'RUB');
+        });
+        document.dispatchEvent(new CustomEvent('bank:account', { detail: change }));
+    });
+
+    source.addEventListener('deposit', function(event) {
+        const change = JSON.parse(event.data);
+        const message = change.status === 'CLOSED' ? 'Депозит закрыт' : 'Депозит обновлен';
+        showNotification(message, 'info');
+        refreshDeposits();
+        document.dispatchEvent(new CustomEvent('bank:deposit', { detail: change }));
+    });
+}
+
+// A deposit event describes one deposit; the list is read again once
+// (web-service has already evicted its cached copy for this user)
+function refreshDeposits() {
+    const table = document.querySelector('[data-live="deposits"]');
+    const counters = document.querySelectorAll('[data-live="activeDeposits"]');
+    if (!table && counters.length === 0) {
+        return;
+    }
+
+    BankAPI.get('/deposits/data').then(data => {
+        if (table) {
+            renderDeposits(data);
+        }
+        if (data.serviceStatus !== 'unavailable') {
+            setField('activeDeposits', data.deposits.filter(deposit => deposit.status === 'ACTIVE').length);
+            document.querySelectorAll('[data-section="deposits"]').forEach(card => card.classList.remove('degraded'));
+        }
+    }).catch(() => {
+        // The next event or a page reload will bring the list
+    });
+}
+
 // Utility functions
 function fadeOutElement(element, duration = 500) {
     element.style.transition = `opacity ${duration}ms ease-out`;
@@ -430,7 +594,10 @@ const BankAPI = {
             });
 
             if (!response.ok) {
-                throw new Error(`HTTP error! status: ${response.status}`);
+                const error = new Error(`HTTP error! status: ${response.status}`);
+                error.status = response.status;
+                error.body = await response.json().catch(() => null);
+                throw error;
             }
 
             return await response.json();
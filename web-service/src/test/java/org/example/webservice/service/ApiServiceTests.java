@@ -0,0 +1,23 @@
+package org.example.webservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApiServiceTests {
+
+    @Test
+    void serviceIdGoesThroughLoadBalancer() {
+        assertThat(ApiService.isServiceId("http://auth-service/auth")).isTrue();
+    }
+
+    @Test
+    void explicitAddressIsCalledDirectly() {
+        assertThat(ApiService.isServiceId("http://localhost:8081/auth")).isFalse();
+        assertThat(ApiService.isServiceId("http://localhost/auth")).isFalse();
+        assertThat(ApiService.isServiceId("http://auth-service:8081/auth")).isFalse();
+        assertThat(ApiService.isServiceId("https://auth.bank.internal/auth")).isFalse();
+        assertThat(ApiService.isServiceId("http://10.0.0.5/auth")).isFalse();
+        assertThat(ApiService.isServiceId("http://[::1]/auth")).isFalse();
+    }
+}